@@ -0,0 +1,63 @@
+package com.minesweeper.benchmarks;
+
+import com.minesweeper.GameUtils.DifficultyLevel;
+import com.minesweeper.gamefield.CreateGameFieldFunctions;
+import com.minesweeper.gamefield.GameField;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+The AdjacencyBenchmark measures the two lookups the game engine does most: the adjacent tileIDs of a tile, and its
+number of adjacent bombs. A single lookup takes only a few nanoseconds, which is too little to measure reliably, so
+every benchmark method does the lookup for all tiles of the game field. Divide the score by the number of tiles to get
+the time of a single lookup.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdjacencyBenchmark {
+
+    @Param({"BEGINNER", "INTERMEDIATE", "EXPERT"})
+    private DifficultyLevel difficultyLevel;
+
+    private GameField gameField;
+    private int[] adjacentTileIDs;
+
+    @Setup
+    public void setUp() {
+        gameField = GameField.restartGame(difficultyLevel, difficultyLevel.getNumberOfTiles() / 2, 42);
+        adjacentTileIDs = new int[8];
+    }
+
+    @Benchmark
+    public void getAdjacentTileIDs(Blackhole blackhole) {
+        for (int tileID = 0; tileID < difficultyLevel.getNumberOfTiles(); tileID++) {
+            int numberOfAdjacentTiles = CreateGameFieldFunctions.getAdjacentTileIDs(difficultyLevel, tileID,
+                    adjacentTileIDs);
+            blackhole.consume(adjacentTileIDs[numberOfAdjacentTiles - 1]);
+        }
+    }
+
+    @Benchmark
+    public void getAdjacentBombs(Blackhole blackhole) {
+        for (int tileID = 0; tileID < difficultyLevel.getNumberOfTiles(); tileID++) {
+            blackhole.consume(CreateGameFieldFunctions.getAdjacentBombs(gameField, tileID));
+        }
+    }
+}
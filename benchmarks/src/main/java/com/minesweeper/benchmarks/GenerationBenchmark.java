@@ -0,0 +1,55 @@
+package com.minesweeper.benchmarks;
+
+import com.minesweeper.GameUtils.DifficultyLevel;
+import com.minesweeper.gamefield.GameField;
+import com.minesweeper.gamefield.RandomStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+The GenerationBenchmark measures the creation of a new game field after the first click, for every difficulty level.
+The difficulty levels have different bomb densities, so together they show how the bomb placement and the counting
+of adjacent bombs in CreateGameFieldFunctions.createGameTiles scale with the density. The createGameTiles method
+itself is package private, GameField.restartGame is the public way in and adds nothing but the GameField around the
+board.
+
+The RandomStrategy is created once per trial from a fixed seed, so every run generates the same sequence of game
+fields.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenerationBenchmark {
+
+    @Param({"BEGINNER", "INTERMEDIATE", "EXPERT"})
+    private DifficultyLevel difficultyLevel;
+
+    private RandomStrategy random;
+    private int firstTileID;
+
+    @Setup
+    public void setUp() {
+        random = RandomStrategy.xoroshiro(42);
+        firstTileID = difficultyLevel.getNumberOfTiles() / 2;
+    }
+
+    @Benchmark
+    public GameField createGameTiles() {
+        return GameField.restartGame(difficultyLevel, firstTileID, random);
+    }
+}
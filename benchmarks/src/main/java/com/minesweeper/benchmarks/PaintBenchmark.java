@@ -0,0 +1,90 @@
+package com.minesweeper.benchmarks;
+
+import com.minesweeper.GameUtils.DifficultyLevel;
+import com.minesweeper.UserInterface.BoardView;
+import com.minesweeper.UserInterface.IconCache;
+import com.minesweeper.gamefield.GameLoop;
+import com.minesweeper.gamefield.GameSession;
+import com.minesweeper.gamefield.GameSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/*
+The PaintBenchmark measures painting a whole game field off-screen, into a BufferedImage, so no window is needed and
+the benchmark also runs on a headless machine. It paints the same BoardView the GameInterface shows. The first tile is
+revealed and a flag is placed before painting, so the game field shows a mix of hidden tiles, flags, empty tiles and
+numbers, like during a real game. Just like in the GameInterface, the game is played by a GameLoop. The BoardView is
+created after the moves were made, so it is given a full snapshot, instead of every snapshot the GameLoop published.
+
+The sprite atlas of the BoardView is drawn on the first paint, which happens during the warmup, so the benchmark
+measures painting the tiles themselves.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PaintBenchmark {
+
+    private static final int FIELD_SIZE_IN_PIXELS = 600;
+
+    @Param({"BEGINNER", "INTERMEDIATE", "EXPERT"})
+    private DifficultyLevel difficultyLevel;
+
+    private BoardView boardView;
+    private BufferedImage image;
+
+    @Setup
+    public void setUp() throws InterruptedException {
+        BlockingQueue<GameSnapshot> snapshots = new LinkedBlockingQueue<>();
+        GameLoop gameLoop = new GameLoop(snapshots::add);
+        gameLoop.newGame(new GameSession(difficultyLevel, 42));
+        gameLoop.reveal(difficultyLevel.getNumberOfTiles() / 2);
+        gameLoop.flag(0);
+        gameLoop.requestFullSnapshot();
+        gameLoop.shutdown();
+        boardView = new BoardView(new IconCache(FIELD_SIZE_IN_PIXELS / difficultyLevel.getFieldLengthInTiles()),
+                difficultyLevel.getBoardSpec(), (tileID, e) -> { });
+        GameSnapshot snapshot;
+        do {
+            snapshot = snapshots.take();
+        } while (!snapshot.isFull());
+        boardView.applySnapshot(snapshot);
+        boardView.setBounds(0, 0, FIELD_SIZE_IN_PIXELS, FIELD_SIZE_IN_PIXELS);
+        image = new BufferedImage(FIELD_SIZE_IN_PIXELS, FIELD_SIZE_IN_PIXELS, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    @TearDown
+    public void tearDown() {
+        image.flush();
+    }
+
+    @Benchmark
+    public BufferedImage paintGameField() {
+        Graphics2D graphics = image.createGraphics();
+        try {
+            boardView.paint(graphics);
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+}
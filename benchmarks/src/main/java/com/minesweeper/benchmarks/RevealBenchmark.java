@@ -0,0 +1,71 @@
+package com.minesweeper.benchmarks;
+
+import com.minesweeper.GameUtils.DifficultyLevel;
+import com.minesweeper.gamefield.GameField;
+import com.minesweeper.gamefield.RevealDelta;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+The RevealBenchmark measures a flood reveal: clicking a tile without adjacent bombs, which reveals the whole area
+around it. A game field can only be revealed once, so every invocation first rebuilds an untouched game field from the
+same bombs. The rebuildGameField benchmark measures only that part, so subtracting its score from the score of
+floodReveal gives the time of the reveal itself.
+
+The layout parameter chooses between a normal game field of the difficulty level, generated from a fixed seed, and a
+game field without any bombs, on which the first click reveals every tile.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RevealBenchmark {
+
+    @Param({"BEGINNER", "INTERMEDIATE", "EXPERT"})
+    private DifficultyLevel difficultyLevel;
+
+    @Param({"random", "empty"})
+    private String layout;
+
+    private int[] bombTileIDs;
+    private int firstTileID;
+
+    @Setup
+    public void setUp() {
+        firstTileID = difficultyLevel.getNumberOfTiles() / 2;
+        if (layout.equals("empty")) {
+            bombTileIDs = new int[0];
+            return;
+        }
+        GameField gameField = GameField.restartGame(difficultyLevel, firstTileID, 42);
+        bombTileIDs = new int[gameField.getNumberOfBombs()];
+        int numberOfBombs = 0;
+        for (int tileID = 0; tileID < gameField.getNumberOfTiles(); tileID++) {
+            if (gameField.isBomb(tileID)) bombTileIDs[numberOfBombs++] = tileID;
+        }
+    }
+
+    @Benchmark
+    public GameField rebuildGameField() {
+        return GameField.createFromBombs(difficultyLevel, bombTileIDs);
+    }
+
+    @Benchmark
+    public RevealDelta floodReveal() {
+        return GameField.createFromBombs(difficultyLevel, bombTileIDs).reveal(firstTileID);
+    }
+}
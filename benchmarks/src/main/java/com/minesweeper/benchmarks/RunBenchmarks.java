@@ -0,0 +1,35 @@
+package com.minesweeper.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/*
+RunBenchmarks is the main class of benchmarks.jar. It accepts the usual JMH command line options, so a single benchmark
+can still be selected with a regular expression, for example:
+
+        java -jar target/benchmarks.jar RevealBenchmark
+
+On top of those options, it always adds the GC profiler, which reports the allocation rate of every benchmark next to
+its score, and it writes the results to jmh-result.json. That file can be kept with every release, so the numbers of a
+new build can be compared to the previous ones before rolling it out.
+ */
+
+public class RunBenchmarks {
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        Options options = new OptionsBuilder()
+                .parent(commandLineOptions)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(commandLineOptions.getResultFormat().orElse(ResultFormatType.JSON))
+                .result(commandLineOptions.getResult().orElse("jmh-result.json"))
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,42 @@
+package com.minesweeper.benchmarks;
+
+import com.minesweeper.GameUtils.DifficultyLevel;
+import com.minesweeper.gamefield.GameField;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// The ToStringBenchmark measures printing a whole game field with GameField.toString.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ToStringBenchmark {
+
+    @Param({"BEGINNER", "INTERMEDIATE", "EXPERT"})
+    private DifficultyLevel difficultyLevel;
+
+    private GameField gameField;
+
+    @Setup
+    public void setUp() {
+        gameField = GameField.restartGame(difficultyLevel, difficultyLevel.getNumberOfTiles() / 2, 42);
+    }
+
+    @Benchmark
+    public String gameFieldToString() {
+        return gameField.toString();
+    }
+}
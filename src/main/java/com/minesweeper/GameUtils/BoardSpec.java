@@ -0,0 +1,107 @@
+package com.minesweeper.GameUtils;
+
+/*
+The BoardSpec class describes the shape of a game field: the number of tiles on a row, the number of rows, and the
+number of bombs. The DifficultyLevel enum only knows three fixed shapes, which is fine for playing, but stress tests
+and capacity tests need boards of any size. Everything that depends on the size of the game field, from creating the
+game field to drawing it, takes a BoardSpec.
+
+The three DifficultyLevels are presets: every DifficultyLevel has its own BoardSpec, which can be obtained with
+getBoardSpec. A custom BoardSpec is created with the of method, which returns the BoardSpec of a DifficultyLevel when
+the shape happens to be the same. So getDifficultyLevel returns the DifficultyLevel whenever the board is one of the
+presets, and null for any other shape. The high scores for example are only kept for the presets.
+
+A board can have up to MAX_TILES_PER_SIDE tiles on a row and as many rows. The first clicked tile and its adjacent
+tiles never contain a bomb, so at least 9 tiles have to stay free. BoardSpec objects are immutable.
+ */
+
+public final class BoardSpec {
+
+    public static final int MAX_TILES_PER_SIDE = 20_000;
+    private static final int FIRST_CLICK_AREA = 9;
+
+    private final int fieldLengthInTiles;
+    private final int fieldWidthInTiles;
+    private final int numberOfBombs;
+    private final DifficultyLevel difficultyLevel;
+
+    private BoardSpec(int fieldLengthInTiles, int fieldWidthInTiles, int numberOfBombs,
+                      DifficultyLevel difficultyLevel) {
+        this.fieldLengthInTiles = fieldLengthInTiles;
+        this.fieldWidthInTiles = fieldWidthInTiles;
+        this.numberOfBombs = numberOfBombs;
+        this.difficultyLevel = difficultyLevel;
+    }
+
+    // preset is only called by the constructor of DifficultyLevel, so every DifficultyLevel has exactly one BoardSpec
+    static BoardSpec preset(DifficultyLevel difficultyLevel) {
+        return new BoardSpec(difficultyLevel.getFieldLengthInTiles(), difficultyLevel.getFieldWidthInTiles(),
+                difficultyLevel.getNumberOfBombs(), difficultyLevel);
+    }
+
+    public static BoardSpec of(int fieldLengthInTiles, int fieldWidthInTiles, int numberOfBombs) {
+        if (fieldLengthInTiles < 1 || fieldWidthInTiles < 1
+                || fieldLengthInTiles > MAX_TILES_PER_SIDE || fieldWidthInTiles > MAX_TILES_PER_SIDE) {
+            throw new IllegalArgumentException("A board must be between 1 and " + MAX_TILES_PER_SIDE
+                    + " tiles on each side, not " + fieldLengthInTiles + "x" + fieldWidthInTiles);
+        }
+        int numberOfTiles = fieldLengthInTiles * fieldWidthInTiles;
+        if (numberOfBombs < 0 || numberOfBombs > numberOfTiles - FIRST_CLICK_AREA) {
+            throw new IllegalArgumentException("A board of " + numberOfTiles + " tiles can have at most "
+                    + Math.max(0, numberOfTiles - FIRST_CLICK_AREA) + " bombs, not " + numberOfBombs);
+        }
+        for (DifficultyLevel level : DifficultyLevel.values()) {
+            BoardSpec preset = level.getBoardSpec();
+            if (preset.fieldLengthInTiles == fieldLengthInTiles && preset.fieldWidthInTiles == fieldWidthInTiles
+                    && preset.numberOfBombs == numberOfBombs) {
+                return preset;
+            }
+        }
+        return new BoardSpec(fieldLengthInTiles, fieldWidthInTiles, numberOfBombs, null);
+    }
+
+    public int getNumberOfTiles() {
+        return fieldLengthInTiles * fieldWidthInTiles;
+    }
+
+    public int getNumberOfBombs() {
+        return numberOfBombs;
+    }
+
+    public int getFieldLengthInTiles() {
+        return fieldLengthInTiles;
+    }
+
+    public int getFieldWidthInTiles() {
+        return fieldWidthInTiles;
+    }
+
+    // getDifficultyLevel returns the DifficultyLevel with this shape, or null for a custom board
+    public DifficultyLevel getDifficultyLevel() {
+        return difficultyLevel;
+    }
+
+    public boolean isPreset() {
+        return difficultyLevel != null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BoardSpec)) return false;
+        BoardSpec other = (BoardSpec) o;
+        return fieldLengthInTiles == other.fieldLengthInTiles && fieldWidthInTiles == other.fieldWidthInTiles
+                && numberOfBombs == other.numberOfBombs;
+    }
+
+    @Override
+    public int hashCode() {
+        return (fieldLengthInTiles * 31 + fieldWidthInTiles) * 31 + numberOfBombs;
+    }
+
+    @Override
+    public String toString() {
+        String shape = fieldLengthInTiles + "x" + fieldWidthInTiles + ", " + numberOfBombs + " bombs";
+        return difficultyLevel != null ? difficultyLevel + " (" + shape + ")" : shape;
+    }
+}
@@ -5,6 +5,9 @@ The enum Difficulty level provides the constant values a player can choose to se
 gamefield, both abstract and visual, is dependent on the selected Difficulty level. The enum contains a constructor
 which sets the number of bombs and tiles, and the fieldlength and fieldwith, based on the selected constant.
 The enum also provides methods to obtain those values.
+
+The game field itself is described by a BoardSpec, which can have any size. The difficulty levels are the presets among
+those, getBoardSpec returns the BoardSpec of a difficulty level.
  */
 
 public enum DifficultyLevel {
@@ -16,12 +19,14 @@ public enum DifficultyLevel {
     private int numberOfBombs;
     private int fieldLengthInTiles;
     private int fieldWidthInTiles;
+    private BoardSpec boardSpec;
 
     DifficultyLevel(int fieldLengthInTiles, int fieldWidthInTiles, int numberOfBombs) {
         this.fieldLengthInTiles = fieldLengthInTiles;
         this.fieldWidthInTiles= fieldWidthInTiles;
         this.numberOfBombs = numberOfBombs;
         this.numberOfTiles = fieldLengthInTiles * fieldWidthInTiles;
+        this.boardSpec = BoardSpec.preset(this);
     }
 
     public int getNumberOfTiles() {
@@ -39,4 +44,8 @@ public enum DifficultyLevel {
     public int getFieldWidthInTiles() {
         return fieldWidthInTiles;
     }
+
+    public BoardSpec getBoardSpec() {
+        return boardSpec;
+    }
 }
@@ -0,0 +1,18 @@
+package com.minesweeper.GameUtils;
+
+/*
+The enum GameState describes the phase a game is in. A game is NOT_STARTED until the first tile is revealed, because
+the game field is only created after the first click. It is PLAYING until the player either reveals a bomb, which
+makes it LOST, or reveals every tile that is not a bomb, which makes it WON.
+ */
+
+public enum GameState {
+    NOT_STARTED,
+    PLAYING,
+    WON,
+    LOST;
+
+    public boolean isFinished() {
+        return this == WON || this == LOST;
+    }
+}
@@ -7,6 +7,11 @@ import com.minesweeper.GameUtils.DifficultyLevel;
 The HighScore class is used to keep track of the players score. A high score consists of the time elapsed, the players
 name. And the difficulty level of the played game.
 
+The time elapsed used to be kept in whole seconds only. It is now measured in milliseconds, and stored in the
+timeElapsedInMillis property. The timeElapsed property still holds the whole seconds, so the REST api and older
+versions of the game keep working with it. Scores stored before the milliseconds were kept don't have them, for those
+getTimeElapsedInMillis falls back to the seconds.
+
 The @JsonIgnoreProperties annotation tells your application to ignore any unknown properties during deserialization.
 This means that when a JSON object is returned from our REST api, any properties that the JSON object holds that cannot
 be set through this java class, are simply ignored.
@@ -17,27 +22,38 @@ public class HighScore implements Comparable<HighScore> {
 
     private DifficultyLevel difficultyLevel;
     private long timeElapsed;
+    private Long timeElapsedInMillis;
     private String playerName;
 
     public HighScore() {
 
     }
 
-    HighScore(DifficultyLevel difficultyLevel, long timeElapsed, String playerName) {
+    HighScore(DifficultyLevel difficultyLevel, long timeElapsedInMillis, String playerName) {
         this.difficultyLevel = difficultyLevel;
-        this.timeElapsed = timeElapsed;
+        this.timeElapsed = timeElapsedInMillis / 1000;
+        this.timeElapsedInMillis = timeElapsedInMillis;
         this.playerName = playerName;
     }
 
     @Override
     public int compareTo(HighScore otherHighScore) {
-        return (int) (this.getTimeElapsed() - otherHighScore.getTimeElapsed());
+        return Long.compare(this.getTimeElapsedInMillis(), otherHighScore.getTimeElapsedInMillis());
     }
 
+    // getTimeElapsed returns the time elapsed in whole seconds
     public long getTimeElapsed() {
         return timeElapsed;
     }
 
+    public long getTimeElapsedInMillis() {
+        return timeElapsedInMillis != null ? timeElapsedInMillis : timeElapsed * 1000;
+    }
+
+    public void setTimeElapsedInMillis(Long timeElapsedInMillis) {
+        this.timeElapsedInMillis = timeElapsedInMillis;
+    }
+
     public String getPlayerName() {
         return playerName;
     }
@@ -63,8 +79,8 @@ public class HighScore implements Comparable<HighScore> {
         public beginnerHighScore() {
         }
 
-        beginnerHighScore(long timeElapsed, String playerName) {
-            super(DifficultyLevel.BEGINNER, timeElapsed, playerName);
+        beginnerHighScore(long timeElapsedInMillis, String playerName) {
+            super(DifficultyLevel.BEGINNER, timeElapsedInMillis, playerName);
         }
     }
 
@@ -74,8 +90,8 @@ public class HighScore implements Comparable<HighScore> {
 
         }
 
-        intermediateHighScore(long timeElapsed, String playerName) {
-            super(DifficultyLevel.INTERMEDIATE, timeElapsed, playerName);
+        intermediateHighScore(long timeElapsedInMillis, String playerName) {
+            super(DifficultyLevel.INTERMEDIATE, timeElapsedInMillis, playerName);
         }
     }
 
@@ -83,8 +99,8 @@ public class HighScore implements Comparable<HighScore> {
 
         public expertHighScore() {}
 
-        expertHighScore(long timeElapsed, String playerName) {
-            super(DifficultyLevel.EXPERT, timeElapsed, playerName);
+        expertHighScore(long timeElapsedInMillis, String playerName) {
+            super(DifficultyLevel.EXPERT, timeElapsedInMillis, playerName);
         }
     }
 }
@@ -0,0 +1,355 @@
+package com.minesweeper.HighScores;
+
+import com.minesweeper.GameUtils.DifficultyLevel;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/*
+The HighScoreOutbox class makes sure no high score gets lost. A new high score used to be posted to the REST api
+straight away, and when that failed, because the player was offline or the server was down, the high score was gone.
+Now a high score is written to a file first, the outbox, and sent from there by a background thread, which keeps trying
+until the server has it. The game never waits for the network, and a high score that could not be sent yet is sent
+the next time the game is started.
+
+The outbox is an append-only log. Every high score is appended as a SUBMIT record, with a sequence number. When the
+server has accepted it, an ACK record with the same sequence number is appended. Opening the outbox reads the log, and
+every SUBMIT without an ACK is sent again. Records are only ever appended, so a crash can at most leave an incomplete
+record at the end of the file. Every record holds its length and a CRC32 of its contents, so an incomplete or damaged
+record is recognised, and the file is cut off before it. When every high score is acknowledged, the log is emptied.
+
+A record is a length, the contents, and the CRC32 of the contents:
+    int length, byte type, long sequence number, [byte difficulty level, long time in millis, player name], int crc
+where the part between brackets is only there for a SUBMIT, and the player name takes up the rest of the contents, in
+UTF-8.
+
+Writing a record only hands it to the operating system. The background thread calls FileChannel.force for all records
+written since the previous force at once, so a burst of records costs a single fsync, and it does so before sending
+anything. It then sends at most MAX_BATCH_SIZE high scores at a time through the HighScoreSender. When sending fails,
+the thread waits before trying again, INITIAL_BACKOFF milliseconds the first time, twice as long after every following
+failure, up to MAX_BACKOFF. A high score the server rejects as invalid, with a 400 or 422 response, would be rejected
+again, so it is acknowledged anyway, and reported. Any other failure, like a server that can't be found, is retried.
+
+The file is locked while the outbox is open, so two games can't send the same high scores.
+ */
+
+class HighScoreOutbox implements Closeable {
+
+    private static final byte SUBMIT = 1;
+    private static final byte ACK = 2;
+    private static final int MAX_NAME_LENGTH = 1024;
+    private static final int MAX_BATCH_SIZE = 16;
+    private static final long INITIAL_BACKOFF = TimeUnit.SECONDS.toMillis(1);
+    private static final long MAX_BACKOFF = TimeUnit.MINUTES.toMillis(5);
+
+    /*
+    The HighScoreSender sends a single high score to the REST api. The future completes when the server has accepted
+    it, or exceptionally when sending failed.
+     */
+    interface HighScoreSender {
+        CompletableFuture<Void> send(DifficultyLevel difficultyLevel, long timeElapsedInMillis, String playerName);
+    }
+
+    private static final class PendingHighScore {
+        private final long sequenceNumber;
+        private final DifficultyLevel difficultyLevel;
+        private final long timeElapsedInMillis;
+        private final String playerName;
+
+        private PendingHighScore(long sequenceNumber, DifficultyLevel difficultyLevel, long timeElapsedInMillis,
+                                 String playerName) {
+            this.sequenceNumber = sequenceNumber;
+            this.difficultyLevel = difficultyLevel;
+            this.timeElapsedInMillis = timeElapsedInMillis;
+            this.playerName = playerName;
+        }
+    }
+
+    private final FileChannel channel;
+    private final HighScoreSender sender;
+    private final Deque<PendingHighScore> pending = new ArrayDeque<>();
+    private final Thread worker;
+    private long nextSequenceNumber = 1;
+    private boolean unforced;
+    private boolean sending;
+    private long backoff = INITIAL_BACKOFF;
+    private long nextAttemptNanos = System.nanoTime();
+    private long forceBackoff = INITIAL_BACKOFF;
+    private long nextForceNanos = System.nanoTime();
+    private boolean closed;
+
+    private HighScoreOutbox(FileChannel channel, HighScoreSender sender) {
+        this.channel = channel;
+        this.sender = sender;
+        this.worker = new Thread(this::run, "high-score-outbox");
+        this.worker.setDaemon(true);
+    }
+
+    /*
+    The open method opens the outbox in the given file, creating it when needed, and starts sending the high scores
+    that were not acknowledged yet.
+     */
+    static HighScoreOutbox open(Path file, HighScoreSender sender) throws IOException {
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            if (channel.tryLock() == null) throw new IOException(file + " is used by another game");
+            HighScoreOutbox outbox = new HighScoreOutbox(channel, sender);
+            outbox.replay();
+            outbox.worker.start();
+            return outbox;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /*
+    The submit method appends a high score to the outbox, and returns without waiting for the disk or the network.
+     */
+    synchronized void submit(DifficultyLevel difficultyLevel, long timeElapsedInMillis, String playerName)
+            throws IOException {
+        if (closed) throw new IOException("The high score outbox is closed");
+        byte[] name = playerName.getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_NAME_LENGTH) throw new IllegalArgumentException("The player name is too long");
+        PendingHighScore highScore = new PendingHighScore(nextSequenceNumber++, difficultyLevel, timeElapsedInMillis,
+                playerName);
+        ByteBuffer contents = ByteBuffer.allocate(1 + 8 + 1 + 8 + name.length);
+        contents.put(SUBMIT).putLong(highScore.sequenceNumber).put((byte) difficultyLevel.ordinal())
+                .putLong(timeElapsedInMillis).put(name);
+        append(contents);
+        pending.addLast(highScore);
+        notifyAll();
+    }
+
+    // getNumberOfPendingHighScores returns the number of high scores the server doesn't have yet
+    synchronized int getNumberOfPendingHighScores() {
+        return pending.size();
+    }
+
+    /*
+    The close method stops the background thread and closes the file, after forcing what was written to the disk. The
+    high scores that were not sent yet stay in the file. The HighScoreUtils calls it from a shutdown hook, because the
+    background thread is a daemon thread, which would otherwise be stopped with records not forced yet.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            notifyAll();
+        }
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    /*
+    The run method is the background thread. It waits until there are records to force, or high scores to send whose
+    backoff has passed. While a batch is being sent, it only forces. Nothing is sent while records are not forced yet.
+    When the disk fails, the thread reports it and tries again later, with the same backoff as for the network, so a
+    full disk or a lost mount doesn't stop the outbox for good.
+     */
+    private void run() {
+        try {
+            while (true) {
+                List<PendingHighScore> batch;
+                synchronized (this) {
+                    while (!closed && !isReadyToForce() && !isReadyToSend()) {
+                        if (unforced) {
+                            waitUntil(nextForceNanos);
+                        } else if (!pending.isEmpty() && !sending) {
+                            waitUntil(nextAttemptNanos);
+                        } else {
+                            wait();
+                        }
+                    }
+                    if (closed) return;
+                    try {
+                        if (unforced) {
+                            channel.force(false);
+                            unforced = false;
+                            forceBackoff = INITIAL_BACKOFF;
+                        }
+                        if (pending.isEmpty() && channel.size() > 0) {
+                            channel.truncate(0);
+                            channel.force(false);
+                        }
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                        nextForceNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(forceBackoff);
+                        forceBackoff = Math.min(MAX_BACKOFF, forceBackoff * 2);
+                        continue;
+                    }
+                    if (!isReadyToSend()) continue;
+                    sending = true;
+                    batch = new ArrayList<>();
+                    for (PendingHighScore highScore : pending) {
+                        if (batch.size() == MAX_BATCH_SIZE) break;
+                        batch.add(highScore);
+                    }
+                }
+                send(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void waitUntil(long deadlineNanos) throws InterruptedException {
+        wait(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime())));
+    }
+
+    private boolean isReadyToForce() {
+        return unforced && System.nanoTime() - nextForceNanos >= 0;
+    }
+
+    private boolean isReadyToSend() {
+        return !pending.isEmpty() && !sending && !unforced && System.nanoTime() - nextAttemptNanos >= 0;
+    }
+
+    /*
+    The send method sends the high scores of a batch at the same time, and handles the results once all of them are
+    done, on the thread of the last one to finish.
+     */
+    private void send(List<PendingHighScore> batch) {
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (PendingHighScore highScore : batch) {
+            CompletableFuture<Void> sent;
+            try {
+                sent = sender.send(highScore.difficultyLevel, highScore.timeElapsedInMillis, highScore.playerName);
+            } catch (RuntimeException e) {
+                sent = new CompletableFuture<>();
+                sent.completeExceptionally(e);
+            }
+            results.add(sent.handle((ignored, e) -> isDelivered(e)));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0]))
+                .whenComplete((ignored, e) -> finishSending(batch, results));
+    }
+
+    private static boolean isDelivered(Throwable e) {
+        if (e == null) return true;
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof HttpClientErrorException && isInvalid((HttpClientErrorException) cause)) {
+            cause.printStackTrace();
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isInvalid(HttpClientErrorException e) {
+        return e.getStatusCode() == HttpStatus.BAD_REQUEST || e.getStatusCode() == HttpStatus.UNPROCESSABLE_ENTITY;
+    }
+
+    private synchronized void finishSending(List<PendingHighScore> batch, List<CompletableFuture<Boolean>> results) {
+        sending = false;
+        boolean allDelivered = true;
+        for (int i = 0; i < batch.size(); i++) {
+            if (!results.get(i).join()) {
+                allDelivered = false;
+                continue;
+            }
+            pending.remove(batch.get(i));
+            if (closed) continue;
+            try {
+                append(ByteBuffer.allocate(1 + 8).put(ACK).putLong(batch.get(i).sequenceNumber));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        if (allDelivered) {
+            backoff = INITIAL_BACKOFF;
+            nextAttemptNanos = System.nanoTime();
+        } else {
+            nextAttemptNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff);
+            backoff = Math.min(MAX_BACKOFF, backoff * 2);
+        }
+        notifyAll();
+    }
+
+    // append writes a record with the given contents at the end of the file, the background thread forces it
+    private void append(ByteBuffer contents) throws IOException {
+        contents.flip();
+        CRC32 crc = new CRC32();
+        crc.update(contents.array(), 0, contents.limit());
+        ByteBuffer record = ByteBuffer.allocate(4 + contents.limit() + 4);
+        record.putInt(contents.limit()).put(contents).putInt((int) crc.getValue());
+        record.flip();
+        long position = channel.size();
+        while (record.hasRemaining()) {
+            position += channel.write(record, position);
+        }
+        unforced = true;
+    }
+
+    /*
+    The replay method reads the log, and puts every SUBMIT without an ACK back in the pending high scores. Reading
+    stops at the first record that is incomplete or damaged, and the file is cut off there, so new records are
+    appended after the last good one.
+     */
+    private void replay() throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) throw new IOException("The high score outbox is too large");
+        ByteBuffer log = ByteBuffer.allocate((int) size);
+        while (log.hasRemaining() && channel.read(log, log.position()) >= 0) {
+            // keep reading until the whole file is in the buffer
+        }
+        log.flip();
+        DifficultyLevel[] difficultyLevels = DifficultyLevel.values();
+        int end = 0;
+        while (log.remaining() >= 4) {
+            int length = log.getInt();
+            if (length < 1 + 8 || length > 1 + 8 + 1 + 8 + MAX_NAME_LENGTH || log.remaining() < length + 4) break;
+            CRC32 crc = new CRC32();
+            crc.update(log.array(), log.position(), length);
+            int contentsEnd = log.position() + length;
+            if (log.getInt(contentsEnd) != (int) crc.getValue()) break;
+            byte type = log.get();
+            long sequenceNumber = log.getLong();
+            if (type == SUBMIT && length >= 1 + 8 + 1 + 8) {
+                int difficultyLevel = log.get();
+                long timeElapsedInMillis = log.getLong();
+                if (difficultyLevel < 0 || difficultyLevel >= difficultyLevels.length) break;
+                String playerName = new String(log.array(), log.position(), contentsEnd - log.position(),
+                        StandardCharsets.UTF_8);
+                pending.addLast(new PendingHighScore(sequenceNumber, difficultyLevels[difficultyLevel],
+                        timeElapsedInMillis, playerName));
+            } else if (type == ACK) {
+                pending.removeIf(highScore -> highScore.sequenceNumber == sequenceNumber);
+            } else {
+                break;
+            }
+            nextSequenceNumber = Math.max(nextSequenceNumber, sequenceNumber + 1);
+            log.position(contentsEnd + 4);
+            end = log.position();
+        }
+        if (end < size) {
+            channel.truncate(end);
+            channel.force(false);
+        }
+    }
+}
@@ -1,12 +1,21 @@
 package com.minesweeper.HighScores;
 
 import com.minesweeper.GameUtils.DifficultyLevel;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static com.minesweeper.HighScores.HighScore.*;
 
@@ -14,28 +23,91 @@ import static com.minesweeper.HighScores.HighScore.*;
 The HighScoreUtils class was introduced to keep track of the established high scores. It makes use of the singleton
 pattern, because only one set of high scores should exist. The created HighScoreUtils object contains a list of high
 scores for each of the difficulty levels.
+
+The high scores are kept by a REST api. They used to be fetched and posted by the event dispatch thread itself, so the
+game froze until the server answered, which could take very long, as there were no timeouts. Now all requests are sent
+by a small pool of background threads, and the methods return a CompletableFuture. Every request gives up after
+CONNECT_TIMEOUT or READ_TIMEOUT milliseconds.
+
+The high scores that were fetched are kept in a cache, as a Leaderboard per difficulty level, which holds the best
+NUMBER_OF_PLACES of them in order, see the Leaderboard class. A Leaderboard is fresh for CACHE_TTL milliseconds. After
+that it is stale, its high scores are still handed out right away, but a new request is sent in the background to
+replace it (this is called stale-while-revalidate). There is never more than one request for the same difficulty level
+at the same time, a second caller gets the same future as the first.
+
+New high scores are not posted directly, they are submitted to a HighScoreOutbox, a log file in the home directory of
+the player, which sends them in the background and keeps trying until the server has them. When the outbox can't be
+opened, for example because another game is using it, high scores are posted directly, like before. The outbox is
+closed by a shutdown hook when the game exits, so the records written last are forced to the disk.
  */
 
 public class HighScoreUtils {
 
+    private static final int CONNECT_TIMEOUT = 5_000;
+    private static final int READ_TIMEOUT = 5_000;
+    private static final long CACHE_TTL = TimeUnit.MINUTES.toMillis(5);
+    private static final int NUMBER_OF_THREADS = 2;
+    private static final int NUMBER_OF_PLACES = 10;
+
     private static final HighScoreUtils highScores;
-    private List<beginnerHighScore> beginnerHighScores;
-    private List<intermediateHighScore> intermediateHighScores;
-    private List<expertHighScore> expertHighScores;
+    private final Map<DifficultyLevel, CachedHighScores> cache = new EnumMap<>(DifficultyLevel.class);
+    private final Map<DifficultyLevel, CompletableFuture<List<HighScore>>> refreshes =
+            new EnumMap<>(DifficultyLevel.class);
+    private final ExecutorService executor;
+    private final HighScoreOutbox outbox;
     private RestTemplate restTemplate;
     private String beginnerUrl = "https://todolist-back-end-sema.herokuapp.com/api/beginnerHighScore";
     private String intermediateUrl = "https://todolist-back-end-sema.herokuapp.com/api/intermediateHighScore";
     private String expertUrl = "https://todolist-back-end-sema.herokuapp.com/api/expertHighScore";
 
+    // the leaderboard of the high scores as they were fetched, and when
+    private static final class CachedHighScores {
+        private final Leaderboard leaderboard;
+        private final long fetchedAtNanos;
+
+        private CachedHighScores(List<HighScore> highScores) {
+            this.leaderboard = Leaderboard.of(NUMBER_OF_PLACES, highScores);
+            this.fetchedAtNanos = System.nanoTime();
+        }
+
+        private boolean isFresh() {
+            return System.nanoTime() - fetchedAtNanos < TimeUnit.MILLISECONDS.toNanos(CACHE_TTL);
+        }
+    }
+
     static {
         highScores = new HighScoreUtils();
     }
 
     private HighScoreUtils() {
-        beginnerHighScores = new ArrayList<>();
-        intermediateHighScores = new ArrayList<>();
-        expertHighScores = new ArrayList<>();
-        restTemplate = new RestTemplate();
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(CONNECT_TIMEOUT);
+        requestFactory.setReadTimeout(READ_TIMEOUT);
+        restTemplate = new RestTemplate(requestFactory);
+        executor = Executors.newFixedThreadPool(NUMBER_OF_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "high-scores");
+            thread.setDaemon(true);
+            return thread;
+        });
+        outbox = openOutbox();
+    }
+
+    private HighScoreOutbox openOutbox() {
+        Path file = Paths.get(System.getProperty("user.home"), ".minesweeper", "high-score-outbox.log");
+        try {
+            HighScoreOutbox outbox = HighScoreOutbox.open(file, this::sendHighScore);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    outbox.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }, "high-score-outbox-close"));
+            return outbox;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
     }
 
     public static HighScoreUtils createHighScores() {
@@ -43,95 +115,178 @@ public class HighScoreUtils {
         else return highScores;
     }
 
+    // The prefetchHighScores method fills the cache in the background, so the first game already knows the scores.
+    public void prefetchHighScores() {
+        for (DifficultyLevel difficultyLevel : DifficultyLevel.values()) {
+            refresh(difficultyLevel);
+        }
+    }
+
     /*
-    The following methods use a restTemplate object, from Spring Web, to perform get requests. The getForObject
-    method requires the url of the corresponding endpoint. See HighScoreResponse class for the logic behind obtaining
-    the actual list of high scores.
+    The getCachedHighScores method never waits. It returns the cached high scores of the difficulty level, or an empty
+    list when they were never fetched, and starts fetching them in the background when they are missing or stale.
      */
+    public synchronized List<HighScore> getCachedHighScores(DifficultyLevel difficultyLevel) {
+        CachedHighScores cachedHighScores = cache.get(difficultyLevel);
+        if (cachedHighScores == null || !cachedHighScores.isFresh()) refresh(difficultyLevel);
+        return cachedHighScores != null ? cachedHighScores.leaderboard.getHighScores() : Collections.emptyList();
+    }
 
-    public List<beginnerHighScore> getBeginnerHighScores() {
-        HighScoreResponse<beginnerHighScore> beginnerHighScoreResponse =
-                restTemplate.getForObject("https://todolist-back-end-sema.herokuapp.com/api/beginnerHighScore", HighScoreResponse.class);
-        if (beginnerHighScoreResponse != null) {
-            beginnerHighScores = beginnerHighScoreResponse.get_Embedded().get("beginnerHighScores");
+    /*
+    The getHighScores method returns a future of the fresh high scores of the difficulty level. When the cached ones
+    are fresh, the future is already completed with them, otherwise it completes when they are fetched.
+     */
+    public synchronized CompletableFuture<List<HighScore>> getHighScores(DifficultyLevel difficultyLevel) {
+        CachedHighScores cachedHighScores = cache.get(difficultyLevel);
+        if (cachedHighScores != null && cachedHighScores.isFresh()) {
+            return CompletableFuture.completedFuture(cachedHighScores.leaderboard.getHighScores());
         }
-        return beginnerHighScores;
+        return refresh(difficultyLevel);
+    }
+
+    private synchronized CompletableFuture<List<HighScore>> refresh(DifficultyLevel difficultyLevel) {
+        CompletableFuture<List<HighScore>> refresh = refreshes.get(difficultyLevel);
+        if (refresh != null) return refresh;
+        CompletableFuture<List<HighScore>> newRefresh = new CompletableFuture<>();
+        refreshes.put(difficultyLevel, newRefresh);
+        CompletableFuture.supplyAsync(() -> fetchHighScores(difficultyLevel), executor)
+                .whenComplete((fetchedHighScores, e) ->
+                        finishRefresh(difficultyLevel, fetchedHighScores, e, newRefresh));
+        return newRefresh;
     }
 
-    public List<intermediateHighScore> getIntermediateHighScores() {
-        HighScoreResponse<intermediateHighScore> intermediateHighScore =
-                restTemplate.getForObject(intermediateUrl, HighScoreResponse.class);
-        if (intermediateHighScore != null) {
-            intermediateHighScores = intermediateHighScore.get_Embedded().get("intermediateHighScores");
+    /*
+    The finishRefresh method puts the fetched high scores in the cache, and only then completes the future of the
+    refresh, with the high scores on the new leaderboard, so whoever waits for it finds them in the cache as well. The
+    future is completed outside the lock, so the code waiting for it doesn't run while holding it. When a request
+    fails, the cached leaderboard is kept, the next call tries again.
+     */
+    private void finishRefresh(DifficultyLevel difficultyLevel, List<HighScore> fetchedHighScores, Throwable e,
+                               CompletableFuture<List<HighScore>> refresh) {
+        List<HighScore> highScores = null;
+        synchronized (this) {
+            refreshes.remove(difficultyLevel);
+            if (e == null) {
+                CachedHighScores cachedHighScores = new CachedHighScores(fetchedHighScores);
+                cache.put(difficultyLevel, cachedHighScores);
+                highScores = cachedHighScores.leaderboard.getHighScores();
+            }
         }
-        return intermediateHighScores;
+        if (e == null) refresh.complete(highScores);
+        else refresh.completeExceptionally(e);
     }
 
-    public List<expertHighScore> getExpertHighScores() {
-        HighScoreResponse<expertHighScore> expertHighScore =
-                restTemplate.getForObject(expertUrl, HighScoreResponse.class);
-        if (expertHighScore != null) {
-            expertHighScores = expertHighScore.get_Embedded().get("expertHighScores");
+    /*
+    The fetchHighScores method uses the restTemplate object, from Spring Web, to perform a get request. The getForObject
+    method requires the url of the corresponding endpoint. See HighScoreResponse class for the logic behind obtaining
+    the actual list of high scores. The list is put in a Leaderboard by finishRefresh, so it doesn't need sorting.
+     */
+    @SuppressWarnings("unchecked")
+    private List<HighScore> fetchHighScores(DifficultyLevel difficultyLevel) {
+        HighScoreResponse<HighScore> response = restTemplate.getForObject(getUrl(difficultyLevel),
+                HighScoreResponse.class);
+        List<HighScore> fetchedHighScores = new ArrayList<>();
+        if (response != null && response.get_Embedded() != null) {
+            List<HighScore> embedded = response.get_Embedded().get(getEmbeddedName(difficultyLevel));
+            if (embedded != null) fetchedHighScores.addAll(embedded);
         }
-        return expertHighScores;
+        return fetchedHighScores;
     }
 
     /*
-    The addHighScore method makes use of a switch statement to add high scores to the corresponding repository endpoints.
-    It uses the same restTemplate object as used for the get methods.
+    The addHighScore method submits a high score to the outbox, which sends it when it can, see HighScoreOutbox. It
+    returns right away. The high score is added to the cached leaderboard as well, so it is shown before the server
+    has it.
      */
 
-    public void addHighScore(DifficultyLevel difficultyLevel, long timeElapsed, String playerName) {
-        switch (difficultyLevel) {
-            case BEGINNER: {
-                restTemplate.postForObject(beginnerUrl,
-                        new beginnerHighScore(timeElapsed, playerName), beginnerHighScore.class);
-                break;
-            }
-            case INTERMEDIATE: {
-                restTemplate.postForObject(intermediateUrl
-                        ,new intermediateHighScore(timeElapsed, playerName), intermediateHighScore.class);
-                break;
+    public void addHighScore(DifficultyLevel difficultyLevel, long timeElapsedInMillis, String playerName) {
+        synchronized (this) {
+            CachedHighScores cachedHighScores = cache.get(difficultyLevel);
+            if (cachedHighScores != null) {
+                cachedHighScores.leaderboard.add(new HighScore(difficultyLevel, timeElapsedInMillis, playerName));
             }
-            case EXPERT: {
-                restTemplate.postForObject(expertUrl,
-                        new expertHighScore(timeElapsed, playerName), expertHighScore.class);
-                break;
+        }
+        if (outbox != null) {
+            try {
+                outbox.submit(difficultyLevel, timeElapsedInMillis, playerName);
+                return;
+            } catch (IOException e) {
+                e.printStackTrace();
             }
         }
+        sendHighScore(difficultyLevel, timeElapsedInMillis, playerName);
     }
 
     /*
-    The determineIfHighScore method makes use of a switch statement to determine which list to check. It calls the
-    checkIfHighScore method to determine if the score is higher then the lowest score in the list. Only the top 10
-    scores will be displayed, so no more than 10 scores can be added to each list.
+    The sendHighScore method makes use of a switch statement to add high scores to the corresponding repository
+    endpoints. It uses the same restTemplate object as used for fetching, on the background threads as well. Once the
+    high score is added, the high scores of its difficulty level are fetched again.
      */
+    private CompletableFuture<Void> sendHighScore(DifficultyLevel difficultyLevel, long timeElapsedInMillis,
+                                                  String playerName) {
+        CompletableFuture<Void> post = CompletableFuture.runAsync(
+                () -> postHighScore(difficultyLevel, timeElapsedInMillis, playerName), executor);
+        post.thenRun(() -> refresh(difficultyLevel));
+        return post;
+    }
 
-    public boolean determineIfHighScore(DifficultyLevel difficultyLevel, long timeElapsed) {
-        boolean isHighScore = false;
+    private void postHighScore(DifficultyLevel difficultyLevel, long timeElapsedInMillis, String playerName) {
         switch (difficultyLevel) {
             case BEGINNER: {
-                if (beginnerHighScores.size() < 10) isHighScore = true;
-                else isHighScore = checkIfHighScore(beginnerHighScores, timeElapsed);
+                restTemplate.postForObject(beginnerUrl,
+                        new beginnerHighScore(timeElapsedInMillis, playerName), beginnerHighScore.class);
                 break;
             }
             case INTERMEDIATE: {
-                if (intermediateHighScores.size() < 10) isHighScore = true;
-                else isHighScore = checkIfHighScore(intermediateHighScores, timeElapsed);
+                restTemplate.postForObject(intermediateUrl
+                        ,new intermediateHighScore(timeElapsedInMillis, playerName), intermediateHighScore.class);
                 break;
             }
             case EXPERT: {
-                if (expertHighScores.size() < 10) isHighScore = true;
-                else isHighScore = checkIfHighScore(expertHighScores, timeElapsed);
+                restTemplate.postForObject(expertUrl,
+                        new expertHighScore(timeElapsedInMillis, playerName), expertHighScore.class);
                 break;
             }
         }
-        return isHighScore;
     }
 
-    private boolean checkIfHighScore(List<? extends HighScore> HighScores, long timeElapsed) {
-        Collections.sort(HighScores);
-        long lowestHighScoreTime = HighScores.get(9).getTimeElapsed();
-        return timeElapsed < lowestHighScoreTime;
+    private String getUrl(DifficultyLevel difficultyLevel) {
+        switch (difficultyLevel) {
+            case BEGINNER:
+                return beginnerUrl;
+            case INTERMEDIATE:
+                return intermediateUrl;
+            default:
+                return expertUrl;
+        }
+    }
+
+    // getEmbeddedName returns the key of the list of high scores in the _embedded map of the response
+    private static String getEmbeddedName(DifficultyLevel difficultyLevel) {
+        switch (difficultyLevel) {
+            case BEGINNER:
+                return "beginnerHighScores";
+            case INTERMEDIATE:
+                return "intermediateHighScores";
+            default:
+                return "expertHighScores";
+        }
+    }
+
+    /*
+    The determineIfHighScore method asks the cached leaderboard of the difficulty level if the time makes it into the
+    top NUMBER_OF_PLACES, without waiting for the server, and without sorting. Times are compared in milliseconds.
+     */
+
+    public synchronized boolean determineIfHighScore(DifficultyLevel difficultyLevel, long timeElapsedInMillis) {
+        CachedHighScores cachedHighScores = cache.get(difficultyLevel);
+        if (cachedHighScores == null || !cachedHighScores.isFresh()) refresh(difficultyLevel);
+        return cachedHighScores == null || cachedHighScores.leaderboard.isHighScore(timeElapsedInMillis);
+    }
+
+    // getRank returns the place on the cached leaderboard a score with this time would get, 1 for the fastest
+    public synchronized int getRank(DifficultyLevel difficultyLevel, long timeElapsedInMillis) {
+        CachedHighScores cachedHighScores = cache.get(difficultyLevel);
+        return cachedHighScores == null ? 1 : cachedHighScores.leaderboard.getRank(timeElapsedInMillis);
     }
 }
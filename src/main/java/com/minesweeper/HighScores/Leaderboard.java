@@ -0,0 +1,176 @@
+package com.minesweeper.HighScores;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+The Leaderboard class keeps the best high scores of one difficulty level, at most capacity of them, ordered from the
+fastest time to the slowest. Determining if a time was a high score used to mean sorting the whole list of high scores
+that was downloaded, every time a game was won. The Leaderboard is kept in order as scores are added, so adding a
+score takes O(log n) steps, and the question if a time is good enough is answered in a single step, by comparing it
+with the slowest score on the board, or just looking at the size when the board is not full yet.
+
+The scores are kept in a skip list: a linked list in which every node also links ahead over a random number of other
+nodes, on up to MAX_LEVEL levels. Half of the nodes link ahead on level 1, a quarter on level 2, and so on, so a search
+can skip over most of the list on the higher levels, which makes it take O(log n) steps on average. Every link also
+holds the number of nodes it skips, its width, so the rank of a time can be found in O(log n) steps as well, by adding
+up the widths of the links followed. The last node is kept separately, for the threshold. When a score is added to a
+full board, the slowest score drops off the end.
+
+Times are compared with Long.compare on the milliseconds, the same as HighScore.compareTo, so very large times can't
+overflow the comparison. Scores with the same time keep the order in which they were added, the first one to set a
+time stays ahead.
+
+A Leaderboard is not thread safe, the HighScoreUtils only uses it while holding its lock.
+ */
+
+final class Leaderboard {
+
+    private static final int MAX_LEVEL = 16;
+
+    private static final class Node {
+        private final HighScore highScore;
+        private final Node[] next;
+        private final int[] width;
+
+        private Node(HighScore highScore, int levels) {
+            this.highScore = highScore;
+            this.next = new Node[levels];
+            this.width = new int[levels];
+        }
+    }
+
+    private final int capacity;
+    // the head comes before the first score, the links after the last score point at the tail, which is empty
+    private final Node head = new Node(null, MAX_LEVEL);
+    private final Node tail = new Node(null, 0);
+    private final Node[] chain = new Node[MAX_LEVEL];
+    private final int[] steps = new int[MAX_LEVEL];
+    private Node last;
+    private int size;
+
+    Leaderboard(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("A leaderboard needs room for at least 1 score");
+        this.capacity = capacity;
+        for (int level = 0; level < MAX_LEVEL; level++) {
+            head.next[level] = tail;
+            head.width[level] = 1;
+        }
+    }
+
+    static Leaderboard of(int capacity, List<? extends HighScore> highScores) {
+        Leaderboard leaderboard = new Leaderboard(capacity);
+        for (HighScore highScore : highScores) {
+            leaderboard.add(highScore);
+        }
+        return leaderboard;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // isHighScore returns whether a score with this time would make it onto the board
+    boolean isHighScore(long timeElapsedInMillis) {
+        return size < capacity || timeElapsedInMillis < last.highScore.getTimeElapsedInMillis();
+    }
+
+    /*
+    The getRank method returns the place a score with this time would get, 1 for the fastest. A score with the same
+    time as one on the board comes after it. The rank can be larger than the capacity, when the time is too slow.
+     */
+    int getRank(long timeElapsedInMillis) {
+        Node node = head;
+        int position = 0;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            while (node.next[level] != tail && compare(node.next[level].highScore, timeElapsedInMillis) <= 0) {
+                position += node.width[level];
+                node = node.next[level];
+            }
+        }
+        return position + 1;
+    }
+
+    /*
+    The add method puts a score in its place, and returns whether it made it onto the board. A score that isn't a high
+    score is turned away in a single step, before searching for its place.
+     */
+    boolean add(HighScore highScore) {
+        long timeElapsedInMillis = highScore.getTimeElapsedInMillis();
+        if (!isHighScore(timeElapsedInMillis)) return false;
+        Node node = head;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            steps[level] = 0;
+            while (node.next[level] != tail && compare(node.next[level].highScore, timeElapsedInMillis) <= 0) {
+                steps[level] += node.width[level];
+                node = node.next[level];
+            }
+            chain[level] = node;
+        }
+        Node newNode = new Node(highScore, randomLevels());
+        int stepsBefore = 0;
+        for (int level = 0; level < newNode.next.length; level++) {
+            Node previous = chain[level];
+            newNode.next[level] = previous.next[level];
+            previous.next[level] = newNode;
+            newNode.width[level] = previous.width[level] - stepsBefore;
+            previous.width[level] = stepsBefore + 1;
+            stepsBefore += steps[level];
+        }
+        for (int level = newNode.next.length; level < MAX_LEVEL; level++) {
+            chain[level].width[level]++;
+        }
+        if (newNode.next[0] == tail) last = newNode;
+        size++;
+        if (size > capacity) removeLast();
+        return true;
+    }
+
+    // getHighScores returns the scores on the board, from the fastest to the slowest
+    List<HighScore> getHighScores() {
+        List<HighScore> highScores = new ArrayList<>(size);
+        for (Node node = head.next[0]; node != tail; node = node.next[0]) {
+            highScores.add(node.highScore);
+        }
+        return Collections.unmodifiableList(highScores);
+    }
+
+    /*
+    The removeLast method takes the slowest score off the board. The nodes that link to it, on every level it has, now
+    link to the tail, the links of the other levels pass over one node less.
+     */
+    private void removeLast() {
+        Node node = head;
+        int position = 0;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            while (node.next[level] != tail && node.next[level] != last && position + node.width[level] < size) {
+                position += node.width[level];
+                node = node.next[level];
+            }
+            chain[level] = node;
+        }
+        for (int level = 0; level < MAX_LEVEL; level++) {
+            Node previous = chain[level];
+            if (previous.next[level] == last) {
+                previous.width[level] += last.width[level] - 1;
+                previous.next[level] = last.next[level];
+            } else {
+                previous.width[level]--;
+            }
+        }
+        last = chain[0] == head ? null : chain[0];
+        size--;
+    }
+
+    private static int compare(HighScore highScore, long timeElapsedInMillis) {
+        return Long.compare(highScore.getTimeElapsedInMillis(), timeElapsedInMillis);
+    }
+
+    // randomLevels returns 1 with a chance of 1/2, 2 with a chance of 1/4, and so on, up to MAX_LEVEL
+    private static int randomLevels() {
+        long bits = ThreadLocalRandom.current().nextLong();
+        return Math.min(MAX_LEVEL, Long.numberOfTrailingZeros(bits) + 1);
+    }
+}
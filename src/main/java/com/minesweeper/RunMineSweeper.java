@@ -3,14 +3,17 @@ package com.minesweeper;
 import com.minesweeper.GameUtils.DifficultyLevel;
 import com.minesweeper.UserInterface.GameInterface;
 
+import javax.swing.SwingUtilities;
+
 /*
 This class contains the main method, which is the entry point of the application. It creates
-the first GameInterface, for which I chose beginner as the default difficulty level.
+the first GameInterface, for which I chose beginner as the default difficulty level. Swing components may only be used
+on the event dispatch thread, so the GameInterface is created there as well.
  */
 
 public class RunMineSweeper {
 
     public static void main(String[] args) {
-        new GameInterface(DifficultyLevel.BEGINNER);
+        SwingUtilities.invokeLater(() -> new GameInterface(DifficultyLevel.BEGINNER));
     }
 }
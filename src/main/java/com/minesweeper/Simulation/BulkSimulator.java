@@ -0,0 +1,111 @@
+package com.minesweeper.Simulation;
+
+import com.minesweeper.GameUtils.BoardSpec;
+import com.minesweeper.GameUtils.DifficultyLevel;
+import com.minesweeper.GameUtils.GameState;
+import com.minesweeper.gamefield.GameSession;
+import com.minesweeper.gamefield.RandomStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+The BulkSimulator plays large numbers of games without a user interface, using a GameSession for every game and a
+PlayerStrategy to decide which tiles to reveal. It is used to calibrate the number of bombs of a difficulty level, and
+to measure the speed of the game engine between versions.
+
+The games are divided over a fixed number of worker threads. Every worker gets its own RandomStrategy, split from a
+single strategy created from the seed, which it uses both to generate the boards and for the choices of the player.
+The workers therefore never share anything while they play, and running the same simulation with the same seed and
+the same number of workers always plays exactly the same games.
+
+The simulator can be started from the command line, for example to play a million games on every difficulty level
+using 8 threads and seed 42:
+
+        java -cp MineSweeper-1.0-SNAPSHOT.jar com.minesweeper.Simulation.BulkSimulator 1000000 8 42
+
+Adding "solver" as a fourth argument lets the SolverPlayer play instead of the RandomPlayer. A custom board can be
+simulated instead of the difficulty levels by adding its width, height and number of bombs, for example 1000x1000x150000
+for a board of a million tiles:
+
+        java -cp MineSweeper-1.0-SNAPSHOT.jar com.minesweeper.Simulation.BulkSimulator 100 8 42 random 1000x1000x150000
+ */
+
+public class BulkSimulator {
+
+    private final PlayerStrategy playerStrategy;
+    private final int numberOfWorkers;
+
+    public BulkSimulator(PlayerStrategy playerStrategy, int numberOfWorkers) {
+        if (numberOfWorkers < 1) throw new IllegalArgumentException("At least one worker is needed");
+        this.playerStrategy = playerStrategy;
+        this.numberOfWorkers = numberOfWorkers;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        long numberOfGames = args.length > 0 ? Long.parseLong(args[0]) : 100_000;
+        int numberOfWorkers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+        PlayerStrategy player = args.length > 3 && args[3].equals("solver") ? new SolverPlayer() : new RandomPlayer();
+        BulkSimulator simulator = new BulkSimulator(player, numberOfWorkers);
+        if (args.length > 4) {
+            String[] board = args[4].split("x");
+            BoardSpec boardSpec = BoardSpec.of(Integer.parseInt(board[0]), Integer.parseInt(board[1]),
+                    Integer.parseInt(board[2]));
+            System.out.println(simulator.simulate(boardSpec, numberOfGames, seed));
+            return;
+        }
+        for (DifficultyLevel difficultyLevel : DifficultyLevel.values()) {
+            System.out.println(simulator.simulate(difficultyLevel.getBoardSpec(), numberOfGames, seed));
+        }
+    }
+
+    /*
+    The simulate method plays the given number of games and blocks until all of them are finished. The games are
+    spread as evenly as possible over the workers, the first workers play one game extra when the number of games can't
+    be divided exactly.
+     */
+    public SimulationReport simulate(BoardSpec boardSpec, long numberOfGames, long seed)
+            throws InterruptedException {
+        RandomStrategy seedRandom = RandomStrategy.splittable(seed);
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfWorkers);
+        try {
+            long startTime = System.nanoTime();
+            List<Future<SimulationReport>> workers = new ArrayList<>();
+            for (int worker = 0; worker < numberOfWorkers; worker++) {
+                long gamesForWorker = numberOfGames / numberOfWorkers
+                        + (worker < numberOfGames % numberOfWorkers ? 1 : 0);
+                RandomStrategy workerRandom = seedRandom.split();
+                workers.add(executor.submit(() -> playGames(boardSpec, gamesForWorker, workerRandom)));
+            }
+            SimulationReport report = new SimulationReport(boardSpec);
+            for (Future<SimulationReport> worker : workers) {
+                report.merge(worker.get());
+            }
+            report.setElapsedNanos(System.nanoTime() - startTime);
+            return report;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A simulation worker failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private SimulationReport playGames(BoardSpec boardSpec, long numberOfGames, RandomStrategy random) {
+        SimulationReport report = new SimulationReport(boardSpec);
+        for (long game = 0; game < numberOfGames; game++) {
+            GameSession gameSession = new GameSession(boardSpec, random);
+            int numberOfReveals = 0;
+            while (!gameSession.getState().isFinished()) {
+                gameSession.reveal(playerStrategy.chooseTileToReveal(gameSession, random));
+                numberOfReveals++;
+            }
+            report.addGame(gameSession.getState() == GameState.WON, numberOfReveals);
+        }
+        return report;
+    }
+}
@@ -0,0 +1,15 @@
+package com.minesweeper.Simulation;
+
+import com.minesweeper.gamefield.GameSession;
+import com.minesweeper.gamefield.RandomStrategy;
+
+/*
+The PlayerStrategy interface represents a player in a simulated game. The BulkSimulator asks it which tile to reveal
+next, until the game is finished. The given RandomStrategy belongs to the thread running the game, so a strategy can use
+it for random choices without having to share a random number generator between threads.
+ */
+
+public interface PlayerStrategy {
+
+    int chooseTileToReveal(GameSession gameSession, RandomStrategy random);
+}
@@ -0,0 +1,22 @@
+package com.minesweeper.Simulation;
+
+import com.minesweeper.gamefield.GameSession;
+import com.minesweeper.gamefield.RandomStrategy;
+
+/*
+The RandomPlayer reveals a random tile that has not been revealed yet. It is the simplest possible player, and mainly
+useful as a baseline to compare other strategies against, and to measure the speed of the game engine itself.
+ */
+
+public class RandomPlayer implements PlayerStrategy {
+
+    @Override
+    public int chooseTileToReveal(GameSession gameSession, RandomStrategy random) {
+        int numberOfTiles = gameSession.getBoardSpec().getNumberOfTiles();
+        int tileID;
+        do {
+            tileID = random.nextInt(numberOfTiles);
+        } while (gameSession.isRevealed(tileID) || gameSession.isFlagged(tileID));
+        return tileID;
+    }
+}
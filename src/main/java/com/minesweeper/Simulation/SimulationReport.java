@@ -0,0 +1,105 @@
+package com.minesweeper.Simulation;
+
+import com.minesweeper.GameUtils.BoardSpec;
+
+import java.util.Arrays;
+
+/*
+The SimulationReport class collects the results of simulated games. Every worker thread of the BulkSimulator fills its
+own report, so the workers never have to wait for each other, and the reports are merged when all workers are done.
+
+The number of reveals per game is kept in a histogram: the value at index n is the number of games that took n reveals.
+That takes far less memory than storing a number for every game, and is enough to calculate the percentiles.
+ */
+
+public class SimulationReport {
+
+    private final BoardSpec boardSpec;
+    private long numberOfGames;
+    private long numberOfWins;
+    private long totalReveals;
+    private long[] revealHistogram;
+    private long elapsedNanos;
+
+    SimulationReport(BoardSpec boardSpec) {
+        this.boardSpec = boardSpec;
+        this.revealHistogram = new long[16];
+    }
+
+    void addGame(boolean won, int numberOfReveals) {
+        numberOfGames++;
+        if (won) numberOfWins++;
+        totalReveals += numberOfReveals;
+        if (numberOfReveals >= revealHistogram.length) {
+            revealHistogram = Arrays.copyOf(revealHistogram, Math.max(numberOfReveals + 1, revealHistogram.length * 2));
+        }
+        revealHistogram[numberOfReveals]++;
+    }
+
+    void merge(SimulationReport otherReport) {
+        numberOfGames += otherReport.numberOfGames;
+        numberOfWins += otherReport.numberOfWins;
+        totalReveals += otherReport.totalReveals;
+        if (otherReport.revealHistogram.length > revealHistogram.length) {
+            revealHistogram = Arrays.copyOf(revealHistogram, otherReport.revealHistogram.length);
+        }
+        for (int i = 0; i < otherReport.revealHistogram.length; i++) {
+            revealHistogram[i] += otherReport.revealHistogram[i];
+        }
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public BoardSpec getBoardSpec() {
+        return boardSpec;
+    }
+
+    public long getNumberOfGames() {
+        return numberOfGames;
+    }
+
+    public long getNumberOfWins() {
+        return numberOfWins;
+    }
+
+    public double getWinRate() {
+        return numberOfGames == 0 ? 0 : (double) numberOfWins / numberOfGames;
+    }
+
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : numberOfGames * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    public double getAverageReveals() {
+        return numberOfGames == 0 ? 0 : (double) totalReveals / numberOfGames;
+    }
+
+    public long[] getRevealHistogram() {
+        return Arrays.copyOf(revealHistogram, revealHistogram.length);
+    }
+
+    /*
+    The getRevealPercentile method walks through the histogram until it has passed the requested fraction of the
+    games. For example getRevealPercentile(0.5) returns the median number of reveals.
+     */
+    public int getRevealPercentile(double fraction) {
+        long gamesToPass = (long) Math.ceil(fraction * numberOfGames);
+        long passedGames = 0;
+        for (int numberOfReveals = 0; numberOfReveals < revealHistogram.length; numberOfReveals++) {
+            passedGames += revealHistogram[numberOfReveals];
+            if (passedGames >= gamesToPass && passedGames > 0) return numberOfReveals;
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %,d games in %.2f s (%,.0f games/s), win rate %.2f%%, "
+                        + "reveals per game avg %.1f / p50 %d / p90 %d / p99 %d",
+                boardSpec, numberOfGames, elapsedNanos / 1_000_000_000.0, getGamesPerSecond(),
+                getWinRate() * 100, getAverageReveals(), getRevealPercentile(0.5),
+                getRevealPercentile(0.9), getRevealPercentile(0.99));
+    }
+}
@@ -0,0 +1,35 @@
+package com.minesweeper.Simulation;
+
+import com.minesweeper.Solver.ConstraintSolver;
+import com.minesweeper.Solver.SolverResult;
+import com.minesweeper.gamefield.GameSession;
+import com.minesweeper.gamefield.RandomStrategy;
+
+import java.util.Arrays;
+
+/*
+The SolverPlayer reveals the tiles the ConstraintSolver deduces to be safe. Only when the solver can't find a safe tile
+does it guess, by revealing a random unrevealed tile that is not a known bomb. The first move is always a guess, but
+the first revealed tile can never be a bomb.
+ */
+
+public class SolverPlayer implements PlayerStrategy {
+
+    private final ConstraintSolver solver = new ConstraintSolver();
+
+    @Override
+    public int chooseTileToReveal(GameSession gameSession, RandomStrategy random) {
+        int numberOfTiles = gameSession.getBoardSpec().getNumberOfTiles();
+        if (gameSession.getGameField() == null) return random.nextInt(numberOfTiles);
+
+        SolverResult result = solver.solve(gameSession.getGameField());
+        if (result.hasSafeTiles()) return result.getSafeTileIDs()[0];
+
+        int[] bombTileIDs = result.getBombTileIDs();
+        int tileID;
+        do {
+            tileID = random.nextInt(numberOfTiles);
+        } while (gameSession.isRevealed(tileID) || Arrays.binarySearch(bombTileIDs, tileID) >= 0);
+        return tileID;
+    }
+}
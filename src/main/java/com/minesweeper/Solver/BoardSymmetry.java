@@ -0,0 +1,63 @@
+package com.minesweeper.Solver;
+
+/*
+The enum BoardSymmetry contains the ways a board can be mirrored or rotated onto itself. Every symmetry keeps tiles
+that were adjacent adjacent, and tiles on the edge on the edge, so a game field that can be solved without guessing is
+still solvable after applying one, starting from the transformed first tile.
+
+Every board can be mirrored horizontally, vertically, or both (which is the same as rotating it by 180 degrees). Only
+square boards can also be turned by 90 degrees or mirrored along a diagonal, because otherwise the rows and columns no
+longer fit.
+ */
+
+enum BoardSymmetry {
+    IDENTITY(false),
+    MIRROR_COLUMNS(false),
+    MIRROR_ROWS(false),
+    ROTATE_180(false),
+    TRANSPOSE(true),
+    ROTATE_90(true),
+    ROTATE_270(true),
+    ANTI_TRANSPOSE(true);
+
+    private final boolean squareOnly;
+
+    BoardSymmetry(boolean squareOnly) {
+        this.squareOnly = squareOnly;
+    }
+
+    boolean appliesTo(int tilesPerRow, int numberOfRows) {
+        return !squareOnly || tilesPerRow == numberOfRows;
+    }
+
+    BoardSymmetry inverse() {
+        if (this == ROTATE_90) return ROTATE_270;
+        if (this == ROTATE_270) return ROTATE_90;
+        return this;
+    }
+
+    int transform(int tileID, int tilesPerRow, int numberOfRows) {
+        int row = tileID / tilesPerRow;
+        int column = tileID % tilesPerRow;
+        int lastRow = numberOfRows - 1;
+        int lastColumn = tilesPerRow - 1;
+        switch (this) {
+            case MIRROR_COLUMNS:
+                return row * tilesPerRow + (lastColumn - column);
+            case MIRROR_ROWS:
+                return (lastRow - row) * tilesPerRow + column;
+            case ROTATE_180:
+                return (lastRow - row) * tilesPerRow + (lastColumn - column);
+            case TRANSPOSE:
+                return column * tilesPerRow + row;
+            case ROTATE_90:
+                return column * tilesPerRow + (lastRow - row);
+            case ROTATE_270:
+                return (lastColumn - column) * tilesPerRow + row;
+            case ANTI_TRANSPOSE:
+                return (lastColumn - column) * tilesPerRow + (lastRow - row);
+            default:
+                return tileID;
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package com.minesweeper.Solver;
+
+import com.minesweeper.gamefield.Board;
+import com.minesweeper.gamefield.NeighbourTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/*
+The ConstraintSolver deduces which unrevealed tiles are safe and which contain a bomb, using only what the player can
+see: the numbers on the revealed tiles. It never looks at where the bombs actually are, and it ignores the flags of the
+player, because those could be wrong. It powers the hints and the bots, so it has to be fast: solving a position on an
+EXPERT board should take well under 1 millisecond on average.
+
+Every revealed number with unrevealed adjacent tiles is a constraint: exactly that number of its unrevealed adjacent
+tiles contain a bomb. The solver applies three kinds of reasoning, from cheap to expensive, and only moves on to the
+next kind when the cheaper ones find nothing new:
+
+1. Single point rules look at one constraint at a time. If all its bombs are already known, its other tiles are safe.
+   If the number of tiles left equals the number of bombs left, all of them are bombs.
+2. Subset rules compare two constraints that share tiles. If constraint A needs exactly as many more bombs than
+   constraint B as it has tiles that B doesn't have, then all those tiles are bombs, and the tiles only B has are safe.
+   The well known 1-2 pattern along a wall is an example of this.
+3. Enumeration tries every possible way to place bombs on the remaining unknown tiles, and keeps the tiles that are
+   safe, or a bomb, in every valid placement. The number of placements grows exponentially with the number of tiles, so
+   the unknown tiles are first split into independent components: groups of tiles that share no constraints with tiles
+   of other groups. Every component is enumerated on its own, in parallel when there is enough work to split.
+   Components too large to enumerate within MAX_ENUMERATION_STEPS are skipped.
+ */
+
+public class ConstraintSolver {
+
+    private static final byte UNKNOWN = 0;
+    private static final byte SAFE = 1;
+    private static final byte BOMB = 2;
+    private static final int MAX_ENUMERATION_VARIABLES = 64;
+    private static final long MAX_ENUMERATION_STEPS = 200_000;
+    private static final int PARALLEL_ENUMERATION_VARIABLES = 40;
+
+    /*
+    The solve method returns the tiles that can be deduced from the revealed numbers on the board. The board is only
+    read, so one ConstraintSolver can solve several boards at the same time.
+     */
+    public SolverResult solve(Board board) {
+        Position position = new Position(board);
+        boolean changed = true;
+        while (changed) {
+            changed = position.applySinglePointRules() || position.applySubsetRules();
+        }
+        position.applyEnumeration();
+        return position.toResult();
+    }
+
+    /*
+    A Constraint holds the unrevealed tiles around a revealed number, and the number of bombs among them.
+     */
+    private static final class Constraint {
+        final int[] tileIDs;
+        final int bombs;
+
+        Constraint(int[] tileIDs, int bombs) {
+            this.tileIDs = tileIDs;
+            this.bombs = bombs;
+        }
+    }
+
+    /*
+    The Position class holds the state of a single solve: the constraints, and what is known about every tile so far.
+     */
+    private static final class Position {
+        private final byte[] knowledge;
+        private final List<Constraint> constraints = new ArrayList<>();
+        private final int[][] constraintsPerTile;
+
+        Position(Board board) {
+            int numberOfTiles = board.getNumberOfTiles();
+            NeighbourTable neighbourTable = NeighbourTable.forSize(board.getTilesPerRow(), board.getNumberOfRows());
+            knowledge = new byte[numberOfTiles];
+            int[] adjacentTileIDs = new int[8];
+            int[] unrevealedTileIDs = new int[8];
+            int[] constraintCounts = new int[numberOfTiles];
+
+            for (int tileID = 0; tileID < numberOfTiles; tileID++) {
+                if (!board.isRevealed(tileID) || board.isBomb(tileID)) continue;
+                int numberOfAdjacentTiles = neighbourTable.getAdjacentTileIDs(tileID, adjacentTileIDs);
+                int numberOfUnrevealed = 0;
+                for (int i = 0; i < numberOfAdjacentTiles; i++) {
+                    int adjacentTileID = adjacentTileIDs[i];
+                    if (!board.isRevealed(adjacentTileID)) unrevealedTileIDs[numberOfUnrevealed++] = adjacentTileID;
+                }
+                if (numberOfUnrevealed == 0) continue;
+                constraints.add(new Constraint(Arrays.copyOf(unrevealedTileIDs, numberOfUnrevealed),
+                        board.getAdjacentBombs(tileID)));
+                for (int i = 0; i < numberOfUnrevealed; i++) constraintCounts[unrevealedTileIDs[i]]++;
+            }
+
+            constraintsPerTile = new int[numberOfTiles][];
+            for (int c = 0; c < constraints.size(); c++) {
+                for (int tileID : constraints.get(c).tileIDs) {
+                    if (constraintsPerTile[tileID] == null) {
+                        constraintsPerTile[tileID] = new int[constraintCounts[tileID]];
+                    }
+                    constraintsPerTile[tileID][--constraintCounts[tileID]] = c;
+                }
+            }
+        }
+
+        private int unknownTiles(Constraint constraint) {
+            int unknown = 0;
+            for (int tileID : constraint.tileIDs) if (knowledge[tileID] == UNKNOWN) unknown++;
+            return unknown;
+        }
+
+        private int bombsLeft(Constraint constraint) {
+            int bombsLeft = constraint.bombs;
+            for (int tileID : constraint.tileIDs) if (knowledge[tileID] == BOMB) bombsLeft--;
+            return bombsLeft;
+        }
+
+        private boolean markUnknownTiles(Constraint constraint, byte value) {
+            boolean changed = false;
+            for (int tileID : constraint.tileIDs) {
+                if (knowledge[tileID] == UNKNOWN) {
+                    knowledge[tileID] = value;
+                    changed = true;
+                }
+            }
+            return changed;
+        }
+
+        boolean applySinglePointRules() {
+            boolean changed = false;
+            for (Constraint constraint : constraints) {
+                int unknown = unknownTiles(constraint);
+                if (unknown == 0) continue;
+                int bombsLeft = bombsLeft(constraint);
+                if (bombsLeft == 0) changed |= markUnknownTiles(constraint, SAFE);
+                else if (bombsLeft == unknown) changed |= markUnknownTiles(constraint, BOMB);
+            }
+            return changed;
+        }
+
+        /*
+        The applySubsetRules method compares every constraint with the constraints sharing a tile with it. For a pair
+        A and B, the tiles only A has must hold at least bombsLeft(A) - bombsLeft(B) bombs, because B's tiles can't
+        hold more than bombsLeft(B). When that equals the number of tiles only A has, they are all bombs, which leaves
+        exactly bombsLeft(B) bombs for the shared tiles, so the tiles only B has are safe.
+         */
+
+        boolean applySubsetRules() {
+            boolean changed = false;
+            for (int a = 0; a < constraints.size(); a++) {
+                Constraint constraintA = constraints.get(a);
+                if (unknownTiles(constraintA) == 0) continue;
+                for (int tileID : constraintA.tileIDs) {
+                    if (knowledge[tileID] != UNKNOWN) continue;
+                    for (int b : constraintsPerTile[tileID]) {
+                        if (b == a) continue;
+                        changed |= applySubsetRule(constraintA, constraints.get(b));
+                    }
+                }
+            }
+            return changed;
+        }
+
+        private boolean applySubsetRule(Constraint constraintA, Constraint constraintB) {
+            int onlyInA = 0;
+            for (int tileID : constraintA.tileIDs) {
+                if (knowledge[tileID] == UNKNOWN && !contains(constraintB.tileIDs, tileID)) onlyInA++;
+            }
+            if (bombsLeft(constraintA) - bombsLeft(constraintB) != onlyInA || onlyInA == 0) return false;
+            for (int tileID : constraintA.tileIDs) {
+                if (knowledge[tileID] == UNKNOWN && !contains(constraintB.tileIDs, tileID)) knowledge[tileID] = BOMB;
+            }
+            for (int tileID : constraintB.tileIDs) {
+                if (knowledge[tileID] == UNKNOWN && !contains(constraintA.tileIDs, tileID)) knowledge[tileID] = SAFE;
+            }
+            return true;
+        }
+
+        private static boolean contains(int[] tileIDs, int tileID) {
+            for (int id : tileIDs) if (id == tileID) return true;
+            return false;
+        }
+
+        /*
+        The applyEnumeration method splits the unknown tiles of the remaining constraints into components, and
+        enumerates each of them. Small amounts of work are done on the calling thread, because handing them to other
+        threads would take longer than the enumeration itself.
+         */
+        void applyEnumeration() {
+            List<Component> components = findComponents();
+            int totalVariables = 0;
+            for (Component component : components) totalVariables += component.tileIDs.length;
+            List<byte[]> results;
+            if (components.size() > 1 && totalVariables >= PARALLEL_ENUMERATION_VARIABLES) {
+                results = components.parallelStream().map(Component::enumerate).collect(Collectors.toList());
+            } else {
+                results = components.stream().map(Component::enumerate).collect(Collectors.toList());
+            }
+            for (int c = 0; c < components.size(); c++) {
+                int[] tileIDs = components.get(c).tileIDs;
+                byte[] deductions = results.get(c);
+                for (int v = 0; v < tileIDs.length; v++) {
+                    if (deductions[v] != UNKNOWN) knowledge[tileIDs[v]] = deductions[v];
+                }
+            }
+        }
+
+        /*
+        The findComponents method walks from every unknown tile through the constraints it is part of, to the other
+        unknown tiles of those constraints, and so on. Every walk collects one component. The order in which the walk
+        finds the tiles is also a good order to enumerate them in, because tiles that share constraints end up close
+        together, so a wrong choice is discovered early.
+         */
+        private List<Component> findComponents() {
+            List<Component> components = new ArrayList<>();
+            boolean[] visitedConstraints = new boolean[constraints.size()];
+            int[] localIndex = new int[knowledge.length];
+            Arrays.fill(localIndex, -1);
+
+            for (int c = 0; c < constraints.size(); c++) {
+                if (visitedConstraints[c] || unknownTiles(constraints.get(c)) == 0) continue;
+                List<Integer> componentTiles = new ArrayList<>();
+                List<Integer> componentConstraints = new ArrayList<>();
+                visitedConstraints[c] = true;
+                componentConstraints.add(c);
+                for (int next = 0; next < componentConstraints.size(); next++) {
+                    for (int tileID : constraints.get(componentConstraints.get(next)).tileIDs) {
+                        if (knowledge[tileID] != UNKNOWN || localIndex[tileID] >= 0) continue;
+                        localIndex[tileID] = componentTiles.size();
+                        componentTiles.add(tileID);
+                        for (int other : constraintsPerTile[tileID]) {
+                            if (!visitedConstraints[other]) {
+                                visitedConstraints[other] = true;
+                                componentConstraints.add(other);
+                            }
+                        }
+                    }
+                }
+                if (componentTiles.size() <= MAX_ENUMERATION_VARIABLES) {
+                    components.add(createComponent(componentTiles, componentConstraints, localIndex));
+                }
+            }
+            return components;
+        }
+
+        private Component createComponent(List<Integer> componentTiles, List<Integer> componentConstraints,
+                                          int[] localIndex) {
+            int[] tileIDs = new int[componentTiles.size()];
+            for (int v = 0; v < tileIDs.length; v++) tileIDs[v] = componentTiles.get(v);
+            int[][] variables = new int[componentConstraints.size()][];
+            int[] bombs = new int[componentConstraints.size()];
+            for (int c = 0; c < variables.length; c++) {
+                Constraint constraint = constraints.get(componentConstraints.get(c));
+                int[] unknownVariables = new int[8];
+                int size = 0;
+                for (int tileID : constraint.tileIDs) {
+                    if (knowledge[tileID] == UNKNOWN) unknownVariables[size++] = localIndex[tileID];
+                }
+                variables[c] = Arrays.copyOf(unknownVariables, size);
+                bombs[c] = bombsLeft(constraint);
+            }
+            return new Component(tileIDs, variables, bombs);
+        }
+
+        SolverResult toResult() {
+            int safe = 0;
+            int bombs = 0;
+            for (byte value : knowledge) {
+                if (value == SAFE) safe++;
+                else if (value == BOMB) bombs++;
+            }
+            int[] safeTileIDs = new int[safe];
+            int[] bombTileIDs = new int[bombs];
+            safe = 0;
+            bombs = 0;
+            for (int tileID = 0; tileID < knowledge.length; tileID++) {
+                if (knowledge[tileID] == SAFE) safeTileIDs[safe++] = tileID;
+                else if (knowledge[tileID] == BOMB) bombTileIDs[bombs++] = tileID;
+            }
+            return new SolverResult(safeTileIDs, bombTileIDs);
+        }
+    }
+
+    /*
+    A Component is a group of unknown tiles that only share constraints with each other. Its tiles are numbered from 0,
+    in the order of the tileIDs array, and its constraints refer to those numbers. The enumerate method backtracks
+    through all bomb placements: it assigns safe, then bomb, to every tile in turn, and goes back as soon as one of the
+    constraints of the tile can no longer be met. For every valid placement it counts how often each tile is a bomb.
+     */
+    private static final class Component {
+        private final int[] tileIDs;
+        private final int[][] variables;
+        private final int[] bombs;
+        private final int[][] constraintsPerVariable;
+        private final int[] assignedBombs;
+        private final int[] unassignedVariables;
+        private final byte[] assignment;
+        private final long[] bombCounts;
+        private long solutions;
+        private long steps;
+
+        Component(int[] tileIDs, int[][] variables, int[] bombs) {
+            this.tileIDs = tileIDs;
+            this.variables = variables;
+            this.bombs = bombs;
+            this.assignedBombs = new int[variables.length];
+            this.unassignedVariables = new int[variables.length];
+            this.assignment = new byte[tileIDs.length];
+            this.bombCounts = new long[tileIDs.length];
+            int[] counts = new int[tileIDs.length];
+            for (int c = 0; c < variables.length; c++) {
+                unassignedVariables[c] = variables[c].length;
+                for (int v : variables[c]) counts[v]++;
+            }
+            this.constraintsPerVariable = new int[tileIDs.length][];
+            for (int v = 0; v < tileIDs.length; v++) constraintsPerVariable[v] = new int[counts[v]];
+            for (int c = 0; c < variables.length; c++) {
+                for (int v : variables[c]) constraintsPerVariable[v][--counts[v]] = c;
+            }
+        }
+
+        byte[] enumerate() {
+            byte[] deductions = new byte[tileIDs.length];
+            if (!search(0) || solutions == 0) return deductions;
+            for (int v = 0; v < tileIDs.length; v++) {
+                if (bombCounts[v] == 0) deductions[v] = SAFE;
+                else if (bombCounts[v] == solutions) deductions[v] = BOMB;
+            }
+            return deductions;
+        }
+
+        // search returns false when the enumeration took too many steps, the counts are incomplete in that case
+        private boolean search(int variable) {
+            if (++steps > MAX_ENUMERATION_STEPS) return false;
+            if (variable == tileIDs.length) {
+                solutions++;
+                for (int v = 0; v < assignment.length; v++) bombCounts[v] += assignment[v];
+                return true;
+            }
+            for (byte value = 0; value <= 1; value++) {
+                assignment[variable] = value;
+                if (assign(variable, value) && !search(variable + 1)) {
+                    unassign(variable, value);
+                    return false;
+                }
+                unassign(variable, value);
+            }
+            assignment[variable] = 0;
+            return true;
+        }
+
+        private boolean assign(int variable, byte value) {
+            boolean valid = true;
+            for (int c : constraintsPerVariable[variable]) {
+                assignedBombs[c] += value;
+                unassignedVariables[c]--;
+                if (assignedBombs[c] > bombs[c] || assignedBombs[c] + unassignedVariables[c] < bombs[c]) valid = false;
+            }
+            return valid;
+        }
+
+        private void unassign(int variable, byte value) {
+            for (int c : constraintsPerVariable[variable]) {
+                assignedBombs[c] -= value;
+                unassignedVariables[c]++;
+            }
+        }
+    }
+}
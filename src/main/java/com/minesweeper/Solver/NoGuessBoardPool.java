@@ -0,0 +1,240 @@
+package com.minesweeper.Solver;
+
+import com.minesweeper.GameUtils.BoardSpec;
+import com.minesweeper.gamefield.GameField;
+import com.minesweeper.gamefield.GameFieldFactory;
+import com.minesweeper.gamefield.RandomStrategy;
+import com.minesweeper.gamefield.RevealDelta;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+The NoGuessBoardPool keeps a supply of game fields that are verified to be solvable without guessing, so the player
+never has to wait for the NoGuessGenerator after the first click. A background thread fills a pool for the selected
+BoardSpec, up to a maximum number of game fields, and takes a new game field out of the pool whenever a game starts.
+Boards of more than MAX_POOLED_TILES tiles take too long to verify to be worth prefetching, those are only generated on
+the spot.
+
+A pooled game field was generated for one particular first tile, its canonical starting tile. But it can be used for
+more first clicks than that one. The canonical starting tile has no adjacent bombs, so revealing it opens up an area.
+Clicking any other tile without adjacent bombs in that area opens exactly the same area, so the game field is just as
+solvable from those tiles. On top of that, the game field can be mirrored or rotated, see BoardSymmetry, which moves
+the area to other parts of the board. So when the player clicks a tile, the pool looks for a game field and a symmetry
+that maps one of its safe starting tiles onto the clicked tile, and hands out the transformed game field. Shifting a
+game field is not an option, because tiles near the edge have fewer neighbours, so a shifted game field could need
+guessing after all.
+
+To cover as many tiles as possible, the background thread generates every new game field for a starting tile that
+none of the pooled game fields covers yet. Only when no pooled game field fits the clicked tile does the pool fall back
+to generating one on the spot, with all the given workers and the usual budget of one second. The background thread
+uses a generator of its own with a single worker and a more generous budget, so it never competes with that.
+
+Only the game fields of the selected BoardSpec are kept. Selecting another BoardSpec throws away the pooled game fields
+of the previous one, so the pool doesn't hold on to every BoardSpec that was ever played. Call shutdown when the pool is
+no longer needed.
+ */
+
+public class NoGuessBoardPool implements GameFieldFactory {
+
+    private static final int MAX_POOLED_TILES = 4096;
+
+    private final NoGuessGenerator producerGenerator;
+    private final NoGuessGenerator fallbackGenerator;
+    private final int maximumPoolSize;
+    private final Map<BoardSpec, List<PooledGameField>> pools = new HashMap<>();
+    private final Thread producer;
+    private BoardSpec boardSpec;
+    private long poolVersion;
+    private boolean shutdown;
+
+    public NoGuessBoardPool(BoardSpec boardSpec, int maximumPoolSize, int numberOfWorkers) {
+        this.producerGenerator = new NoGuessGenerator(1, 5, TimeUnit.SECONDS);
+        this.fallbackGenerator = new NoGuessGenerator(numberOfWorkers, 1, TimeUnit.SECONDS);
+        this.maximumPoolSize = maximumPoolSize;
+        this.boardSpec = boardSpec;
+        this.producer = new Thread(this::produceGameFields, "no-guess-board-pool");
+        this.producer.setDaemon(true);
+        this.producer.start();
+    }
+
+    /*
+    The createGameField method is called by the GameSession on the first click. It hands out a pooled game field when
+    one fits the clicked tile, and otherwise generates a new one, which can take up to the time budget of the
+    NoGuessGenerator.
+     */
+    @Override
+    public GameField createGameField(BoardSpec boardSpec, int tileID, RandomStrategy random) {
+        GameField gameField = takeGameField(boardSpec, tileID);
+        if (gameField != null) return gameField;
+        return fallbackGenerator.createGameField(boardSpec, tileID, random);
+    }
+
+    public synchronized void setBoardSpec(BoardSpec boardSpec) {
+        if (!boardSpec.equals(this.boardSpec)) {
+            pools.clear();
+            poolVersion++;
+        }
+        this.boardSpec = boardSpec;
+        notifyAll();
+    }
+
+    public synchronized int getPoolSize(BoardSpec boardSpec) {
+        List<PooledGameField> pool = pools.get(boardSpec);
+        return pool == null ? 0 : pool.size();
+    }
+
+    // getPool returns the pool of the given BoardSpec, creating it when the BoardSpec is used for the first time
+    private List<PooledGameField> getPool(BoardSpec boardSpec) {
+        return pools.computeIfAbsent(boardSpec, spec -> new ArrayList<>());
+    }
+
+    public void shutdown() {
+        synchronized (this) {
+            shutdown = true;
+            notifyAll();
+        }
+        producer.interrupt();
+        producerGenerator.shutdown();
+        fallbackGenerator.shutdown();
+    }
+
+    private synchronized GameField takeGameField(BoardSpec boardSpec, int tileID) {
+        int tilesPerRow = boardSpec.getFieldLengthInTiles();
+        int numberOfRows = boardSpec.getFieldWidthInTiles();
+        List<PooledGameField> pool = pools.get(boardSpec);
+        if (pool == null) return null;
+        for (int i = 0; i < pool.size(); i++) {
+            PooledGameField pooledGameField = pool.get(i);
+            for (BoardSymmetry symmetry : BoardSymmetry.values()) {
+                if (!symmetry.appliesTo(tilesPerRow, numberOfRows)) continue;
+                int startingTileID = symmetry.inverse().transform(tileID, tilesPerRow, numberOfRows);
+                if (pooledGameField.isSafeStart(startingTileID)) {
+                    pool.remove(i);
+                    notifyAll();
+                    return pooledGameField.createGameField(boardSpec, symmetry);
+                }
+            }
+        }
+        return null;
+    }
+
+    /*
+    The produceGameFields method runs on the background thread. It waits while the pool of the selected BoardSpec is
+    full, or the board is too large to be worth prefetching, and otherwise generates a game field for a starting tile
+    that is not covered yet. Game fields that were being generated while another BoardSpec was selected are thrown
+    away.
+     */
+    private void produceGameFields() {
+        RandomStrategy random = RandomStrategy.splittable(ThreadLocalRandom.current().nextLong());
+        while (true) {
+            BoardSpec spec;
+            long version;
+            int startingTileID;
+            synchronized (this) {
+                while (!shutdown && (getPool(boardSpec).size() >= maximumPoolSize
+                        || boardSpec.getNumberOfTiles() > MAX_POOLED_TILES)) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (shutdown) return;
+                spec = boardSpec;
+                version = poolVersion;
+                startingTileID = findUncoveredTile(spec, random);
+            }
+
+            NoGuessResult result = producerGenerator.generate(spec, startingTileID, random);
+            if (Thread.currentThread().isInterrupted()) return;
+            if (!result.isNoGuess()) continue;
+            PooledGameField pooledGameField = new PooledGameField(result.getGameField(), startingTileID);
+            synchronized (this) {
+                if (version == poolVersion && getPool(spec).size() < maximumPoolSize) {
+                    getPool(spec).add(pooledGameField);
+                }
+            }
+        }
+    }
+
+    private int findUncoveredTile(BoardSpec spec, RandomStrategy random) {
+        int tilesPerRow = spec.getFieldLengthInTiles();
+        int numberOfRows = spec.getFieldWidthInTiles();
+        int numberOfTiles = spec.getNumberOfTiles();
+        boolean[] covered = new boolean[numberOfTiles];
+        int numberOfCovered = 0;
+        for (PooledGameField pooledGameField : getPool(spec)) {
+            for (int safeStart : pooledGameField.safeStarts) {
+                for (BoardSymmetry symmetry : BoardSymmetry.values()) {
+                    if (!symmetry.appliesTo(tilesPerRow, numberOfRows)) continue;
+                    int coveredTileID = symmetry.transform(safeStart, tilesPerRow, numberOfRows);
+                    if (!covered[coveredTileID]) {
+                        covered[coveredTileID] = true;
+                        numberOfCovered++;
+                    }
+                }
+            }
+        }
+        if (numberOfCovered == numberOfTiles) return random.nextInt(numberOfTiles);
+        int uncovered = random.nextInt(numberOfTiles - numberOfCovered);
+        for (int tileID = 0; tileID < numberOfTiles; tileID++) {
+            if (!covered[tileID] && uncovered-- == 0) return tileID;
+        }
+        return random.nextInt(numberOfTiles);
+    }
+
+    /*
+    A PooledGameField stores the bombs of a verified game field, and the tiles from which it can be started: the tiles
+    without adjacent bombs in the area that opens up from its canonical starting tile. Only the bomb positions are
+    kept, the game field handed out is built from them, so it has never been played on.
+     */
+    private static final class PooledGameField {
+        private final int[] bombTileIDs;
+        private final int[] safeStarts;
+        private final boolean[] isSafeStart;
+
+        PooledGameField(GameField gameField, int startingTileID) {
+            int numberOfTiles = gameField.getNumberOfTiles();
+            int[] bombs = new int[gameField.getNumberOfBombs()];
+            int numberOfBombs = 0;
+            for (int tileID = 0; tileID < numberOfTiles; tileID++) {
+                if (gameField.isBomb(tileID)) bombs[numberOfBombs++] = tileID;
+            }
+            this.bombTileIDs = bombs;
+
+            GameField openedGameField = GameField.createFromBombs(gameField.getBoardSpec(), bombs);
+            RevealDelta openedArea = openedGameField.reveal(startingTileID);
+            int[] starts = new int[openedArea.size()];
+            int numberOfStarts = 0;
+            this.isSafeStart = new boolean[numberOfTiles];
+            for (int i = 0; i < openedArea.size(); i++) {
+                int tileID = openedArea.getTileID(i);
+                if (openedGameField.getAdjacentBombs(tileID) == 0) {
+                    starts[numberOfStarts++] = tileID;
+                    isSafeStart[tileID] = true;
+                }
+            }
+            this.safeStarts = Arrays.copyOf(starts, numberOfStarts);
+        }
+
+        boolean isSafeStart(int tileID) {
+            return isSafeStart[tileID];
+        }
+
+        GameField createGameField(BoardSpec boardSpec, BoardSymmetry symmetry) {
+            int tilesPerRow = boardSpec.getFieldLengthInTiles();
+            int numberOfRows = boardSpec.getFieldWidthInTiles();
+            int[] transformedBombs = new int[bombTileIDs.length];
+            for (int i = 0; i < bombTileIDs.length; i++) {
+                transformedBombs[i] = symmetry.transform(bombTileIDs[i], tilesPerRow, numberOfRows);
+            }
+            return GameField.createFromBombs(boardSpec, transformedBombs);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.minesweeper.Solver;
+
+import com.minesweeper.GameUtils.BoardSpec;
+import com.minesweeper.gamefield.GameField;
+import com.minesweeper.gamefield.GameFieldFactory;
+import com.minesweeper.gamefield.RandomStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+The NoGuessGenerator creates game fields that can be solved from the first clicked tile without ever having to guess.
+Random game fields regularly end in a situation where two tiles are equally likely to be a bomb, which competitive
+players consider unfair.
+
+There is no direct way to place bombs so that no guessing is needed, so the generator simply tries random candidate
+game fields until it finds one that the ConstraintSolver can solve completely, revealing only tiles it proved to be
+safe. Most candidates fail within the first few steps, but on the harder difficulty levels many candidates are needed,
+so several worker threads check candidates at the same time. The first worker to find a solvable game field completes a
+CompletableFuture, after which all workers stop. The workers also stop when the time budget runs out, or when the
+thread waiting for the result is interrupted. In that case an ordinary random game field is returned, so the player is
+never left waiting.
+
+Checking a candidate reveals tiles on it, so every candidate is created from its own seed. The winning game field is
+created once more from that seed, which gives an identical game field on which nothing has been revealed yet.
+
+The generator implements GameFieldFactory, so it can be handed to a GameSession. It owns its worker threads, which are
+daemon threads, so they never keep the application from exiting. Call shutdown when the generator is no longer needed.
+ */
+
+public class NoGuessGenerator implements GameFieldFactory {
+
+    private final ConstraintSolver solver = new ConstraintSolver();
+    private final ExecutorService workers;
+    private final int numberOfWorkers;
+    private final long timeBudgetNanos;
+    private volatile NoGuessResult lastResult;
+
+    public NoGuessGenerator(int numberOfWorkers, long timeBudget, TimeUnit timeUnit) {
+        if (numberOfWorkers < 1) throw new IllegalArgumentException("At least one worker is needed");
+        this.numberOfWorkers = numberOfWorkers;
+        this.timeBudgetNanos = timeUnit.toNanos(timeBudget);
+        this.workers = Executors.newFixedThreadPool(numberOfWorkers, runnable -> {
+            Thread thread = new Thread(runnable, "no-guess-generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public GameField createGameField(BoardSpec boardSpec, int tileID, RandomStrategy random) {
+        return generate(boardSpec, tileID, random).getGameField();
+    }
+
+    /*
+    The generate method blocks until a solvable game field is found, or the time budget runs out. Every worker gets its
+    own RandomStrategy, split from the given one, so the workers never share a random number generator.
+     */
+    public NoGuessResult generate(BoardSpec boardSpec, int tileID, RandomStrategy random) {
+        long startTime = System.nanoTime();
+        long deadline = startTime + timeBudgetNanos;
+        CompletableFuture<Long> solvableSeed = new CompletableFuture<>();
+        AtomicBoolean stopped = new AtomicBoolean();
+        AtomicLong rejectedCandidates = new AtomicLong();
+        List<Future<?>> runningWorkers = new ArrayList<>();
+
+        for (int worker = 0; worker < numberOfWorkers; worker++) {
+            RandomStrategy workerRandom = random.split();
+            runningWorkers.add(workers.submit(() -> findSolvableSeed(boardSpec, tileID, workerRandom, deadline,
+                    stopped, rejectedCandidates, solvableSeed)));
+        }
+
+        GameField gameField;
+        boolean noGuess;
+        try {
+            long seed = solvableSeed.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            gameField = GameField.restartGame(boardSpec, tileID, seed);
+            noGuess = true;
+        } catch (TimeoutException | ExecutionException e) {
+            gameField = GameField.restartGame(boardSpec, tileID, random);
+            noGuess = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            gameField = GameField.restartGame(boardSpec, tileID, random);
+            noGuess = false;
+        } finally {
+            stopped.set(true);
+            for (Future<?> runningWorker : runningWorkers) runningWorker.cancel(true);
+        }
+        lastResult = new NoGuessResult(gameField, noGuess, rejectedCandidates.get(), System.nanoTime() - startTime);
+        return lastResult;
+    }
+
+    private void findSolvableSeed(BoardSpec boardSpec, int tileID, RandomStrategy random, long deadline,
+                                  AtomicBoolean stopped, AtomicLong rejectedCandidates,
+                                  CompletableFuture<Long> solvableSeed) {
+        while (!stopped.get() && !Thread.currentThread().isInterrupted() && System.nanoTime() < deadline) {
+            long seed = random.nextLong();
+            if (isSolvableWithoutGuessing(GameField.restartGame(boardSpec, tileID, seed), tileID)) {
+                solvableSeed.complete(seed);
+                return;
+            }
+            rejectedCandidates.incrementAndGet();
+        }
+    }
+
+    /*
+    The isSolvableWithoutGuessing method plays the game field like a perfect player who refuses to guess: it reveals
+    the first tile, and then keeps revealing the tiles the solver proves to be safe. The game field is solvable when
+    all tiles that are not bombs end up revealed. This reveals tiles on the given game field.
+     */
+    public boolean isSolvableWithoutGuessing(GameField gameField, int tileID) {
+        int tilesToReveal = gameField.getNumberOfTiles() - gameField.getNumberOfBombs();
+        gameField.reveal(tileID);
+        while (gameField.getBoard().getNumberOfRevealedTiles() < tilesToReveal) {
+            if (Thread.currentThread().isInterrupted()) return false;
+            SolverResult result = solver.solve(gameField);
+            if (!result.hasSafeTiles()) return false;
+            for (int safeTileID : result.getSafeTileIDs()) {
+                gameField.reveal(safeTileID);
+            }
+        }
+        return true;
+    }
+
+    // getLastResult returns the result of the most recent generate call, or null if there was none
+    public NoGuessResult getLastResult() {
+        return lastResult;
+    }
+
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,47 @@
+package com.minesweeper.Solver;
+
+import com.minesweeper.gamefield.GameField;
+
+/*
+The NoGuessResult class holds the outcome of a NoGuessGenerator run: the game field, whether it was verified to be
+solvable without guessing, how many candidate game fields were rejected before it was found, and how long it took.
+When the time budget runs out before a solvable game field is found, an ordinary random game field is returned, and
+isNoGuess returns false.
+ */
+
+public class NoGuessResult {
+
+    private final GameField gameField;
+    private final boolean noGuess;
+    private final long rejectedCandidates;
+    private final long elapsedNanos;
+
+    NoGuessResult(GameField gameField, boolean noGuess, long rejectedCandidates, long elapsedNanos) {
+        this.gameField = gameField;
+        this.noGuess = noGuess;
+        this.rejectedCandidates = rejectedCandidates;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public GameField getGameField() {
+        return gameField;
+    }
+
+    public boolean isNoGuess() {
+        return noGuess;
+    }
+
+    public long getRejectedCandidates() {
+        return rejectedCandidates;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("no-guess: %b, rejected candidates: %,d, time: %.1f ms",
+                noGuess, rejectedCandidates, elapsedNanos / 1_000_000.0);
+    }
+}
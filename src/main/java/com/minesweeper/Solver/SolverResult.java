@@ -0,0 +1,49 @@
+package com.minesweeper.Solver;
+
+import java.util.Arrays;
+
+/*
+The SolverResult class holds the deductions of the ConstraintSolver: the tiles that are certainly safe to reveal, and
+the tiles that certainly contain a bomb. Both arrays are sorted by tileID. When both are empty, the player has no
+choice but to guess.
+ */
+
+public class SolverResult {
+
+    private final int[] safeTileIDs;
+    private final int[] bombTileIDs;
+
+    SolverResult(int[] safeTileIDs, int[] bombTileIDs) {
+        this.safeTileIDs = safeTileIDs;
+        this.bombTileIDs = bombTileIDs;
+    }
+
+    public int[] getSafeTileIDs() {
+        return Arrays.copyOf(safeTileIDs, safeTileIDs.length);
+    }
+
+    public int[] getBombTileIDs() {
+        return Arrays.copyOf(bombTileIDs, bombTileIDs.length);
+    }
+
+    public int getNumberOfSafeTiles() {
+        return safeTileIDs.length;
+    }
+
+    public int getNumberOfBombTiles() {
+        return bombTileIDs.length;
+    }
+
+    public boolean hasSafeTiles() {
+        return safeTileIDs.length > 0;
+    }
+
+    public boolean isGuessRequired() {
+        return safeTileIDs.length == 0 && bombTileIDs.length == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "safe: " + Arrays.toString(safeTileIDs) + ", bombs: " + Arrays.toString(bombTileIDs);
+    }
+}
@@ -4,12 +4,15 @@ package com.minesweeper.Tile;
 The Tile class is an abstract class providing common behaviour for the different types of Tiles. In this case BombTile
 and Normal Tile. The state of a Tile object contains an ID which corresponds with the ID of the GUI Tile component,
 which is called TileUserInterface. It also contains a boolean value determining if the tile is a Bomb or not.
+
+Tiles are no longer stored by the GameField, the state of all tiles lives in a BitBoard. A Tile is now only a read-only
+view of a single tile, created on request by GameField.getTile.
  */
 
 public abstract class Tile {
 
-    private boolean isBomb;
-    private int tileID;
+    private final boolean isBomb;
+    private final int tileID;
 
     Tile(int tileID, boolean isBomb) {
         this.tileID = tileID;
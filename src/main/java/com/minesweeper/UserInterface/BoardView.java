@@ -0,0 +1,344 @@
+package com.minesweeper.UserInterface;
+
+import com.minesweeper.GameUtils.BoardSpec;
+import com.minesweeper.gamefield.GameSnapshot;
+
+import javax.swing.JComponent;
+import javax.swing.JScrollPane;
+import javax.swing.JViewport;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+import java.awt.Color;
+import java.awt.Container;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.util.Arrays;
+
+/*
+The BoardView class is the visible game field. It used to be a TileContainer with a GridLayout, holding a JPanel for
+every tile, each with its own GridBagLayout, bevel border and MouseListener. Revealing a tile added a new JLabel to its
+panel, after which the whole container had to be validated. On a large board that meant hundreds of thousands of Swing
+objects, and laying them out took far longer than the game itself.
+
+The BoardView is a single component that paints the tiles itself. Every tile looks like one of a few sprites: a hidden
+tile, a flag, an empty tile, a bomb, or one of the numbers 1 to 8. Those sprites are drawn once, next to each other,
+into a single image called the sprite atlas, and painting a tile is just copying its sprite from the atlas, see the
+SpriteAtlas class. Only the tiles that intersect the clip of the Graphics are painted, and after a click only the
+rectangle around the changed tiles is repainted, so the cost of a click depends on what changed, not on the size of
+the board.
+
+The BoardView used to keep no state per tile, it read what a tile looks like from the GameSession while painting. Now
+that the GameSession is played by a GameLoop on a thread of its own, the BoardView keeps the tile code of every tile
+itself, 4 bits per tile, and updates them from the GameSnapshots the GameLoop publishes, see the applySnapshot method.
+A full snapshot holds the tile codes of all tiles in the same layout, so a view that missed snapshots just copies them.
+Clicks are mapped to a tileID from their coordinates and passed on to a TileClickListener, the BoardView itself doesn't
+know the rules of the game.
+
+Because nothing depends on the number of tiles except the size of the view, the BoardView can show boards that are far
+larger than the window. It implements Scrollable, so it can be placed in a JScrollPane, which only ever asks it to
+paint the visible part. By default the tiles are made as large as fits in the window, but never smaller than
+MIN_TILE_SIZE, if the board doesn't fit at that size the view simply becomes larger than the window and can be
+scrolled. Holding control while turning the mouse wheel zooms in or out around the mouse pointer, after which the tile
+size no longer follows the window, until fitToWindow is called.
+ */
+
+public class BoardView extends JComponent implements Scrollable {
+
+    private static final int MIN_TILE_SIZE = 8;
+    private static final int MAX_TILE_SIZE = 128;
+    private static final int DEFAULT_TILE_SIZE = 25;
+    private static final double ZOOM_STEP = 1.25;
+    private static final int[] NO_TILE_IDS = new int[0];
+
+    /*
+    The TileClickListener is told which tile the player clicked on. The MouseEvent is passed along, so the listener
+    can see which button was used.
+     */
+    public interface TileClickListener {
+        void tileClicked(int tileID, MouseEvent e);
+    }
+
+    private final IconCache iconCache;
+    private byte[] tileCodes;
+    private int tilesPerRow;
+    private int numberOfRows;
+    private int tileSize;
+    private boolean fitToWindow = true;
+    private int originX;
+    private int originY;
+    private SpriteAtlas spriteAtlas;
+    private int[] hiddenBombTileIDs = NO_TILE_IDS;
+    private int numberOfBombsShown;
+
+    public BoardView(IconCache iconCache, BoardSpec boardSpec, TileClickListener tileClickListener) {
+        this.iconCache = iconCache;
+        setBackground(Color.darkGray);
+        setOpaque(true);
+        setBoardSpec(boardSpec);
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int tileID = getTileIDAt(e.getX(), e.getY());
+                if (tileID >= 0) tileClickListener.tileClicked(tileID, e);
+            }
+        });
+        addMouseWheelListener(this::mouseWheelMoved);
+    }
+
+    /*
+    The mouseWheelMoved method zooms when control is held down. A component with a MouseWheelListener receives all
+    wheel events, so the JScrollPane around it would no longer scroll. Other wheel events are therefore passed on to
+    the JScrollPane.
+     */
+    private void mouseWheelMoved(MouseWheelEvent e) {
+        if (e.isControlDown()) {
+            zoom(e.getWheelRotation() < 0 ? ZOOM_STEP : 1 / ZOOM_STEP, e.getPoint());
+            return;
+        }
+        Container scrollPane = SwingUtilities.getAncestorOfClass(JScrollPane.class, this);
+        if (scrollPane != null) scrollPane.dispatchEvent(SwingUtilities.convertMouseEvent(this, e, scrollPane));
+    }
+
+    /*
+    The setBoardSpec method shows a new game, with all tiles hidden. Restarting on a board of the same shape is only a
+    reset of the tile codes, the view keeps its size, zoom and sprite atlas, and is just repainted. When the board has
+    a different shape than the previous one, the zoom is reset so the new board fits the window again, and the view is
+    laid out again.
+     */
+    public void setBoardSpec(BoardSpec boardSpec) {
+        int newTilesPerRow = boardSpec.getFieldLengthInTiles();
+        int newNumberOfRows = boardSpec.getFieldWidthInTiles();
+        boolean sameShape = newTilesPerRow == tilesPerRow && newNumberOfRows == numberOfRows;
+        this.hiddenBombTileIDs = NO_TILE_IDS;
+        this.numberOfBombsShown = 0;
+        if (sameShape) {
+            Arrays.fill(tileCodes, (byte) GameSnapshot.HIDDEN);
+        } else {
+            this.tileCodes = new byte[(boardSpec.getNumberOfTiles() + 1) / 2];
+            this.tilesPerRow = newTilesPerRow;
+            this.numberOfRows = newNumberOfRows;
+            this.fitToWindow = true;
+            updateTileSize();
+            revalidate();
+        }
+        repaint();
+    }
+
+    // The fitToWindow method undoes zooming, the tiles become as large as fits in the window again.
+    public void fitToWindow() {
+        fitToWindow = true;
+        revalidate();
+        repaint();
+    }
+
+    /*
+    The zoom method multiplies the tile size by the given factor, keeping the tile under the anchor point where it
+    is. The new size of the view is set right away instead of waiting for the JScrollPane to lay it out, so the view
+    position can be corrected in the same step, without the view jumping.
+     */
+    public void zoom(double factor, Point anchor) {
+        int newTileSize = (int) Math.round(tileSize * factor);
+        if (newTileSize == tileSize) newTileSize += factor > 1 ? 1 : -1;
+        newTileSize = Math.max(MIN_TILE_SIZE, Math.min(MAX_TILE_SIZE, newTileSize));
+        if (newTileSize == tileSize && !fitToWindow) return;
+
+        double anchorColumn = (anchor.x - originX) / (double) tileSize;
+        double anchorRow = (anchor.y - originY) / (double) tileSize;
+        fitToWindow = false;
+        tileSize = newTileSize;
+        spriteAtlas = null;
+        Container parent = getParent();
+        if (parent instanceof JViewport) {
+            JViewport viewport = (JViewport) parent;
+            Point viewPosition = viewport.getViewPosition();
+            Dimension extent = viewport.getExtentSize();
+            Dimension size = getPreferredSize();
+            setSize(Math.max(size.width, extent.width), Math.max(size.height, extent.height));
+            int x = (int) Math.round(originX + anchorColumn * tileSize) - (anchor.x - viewPosition.x);
+            int y = (int) Math.round(originY + anchorRow * tileSize) - (anchor.y - viewPosition.y);
+            x = Math.max(0, Math.min(x, getWidth() - extent.width));
+            y = Math.max(0, Math.min(y, getHeight() - extent.height));
+            viewport.setViewPosition(new Point(x, y));
+        }
+        revalidate();
+        repaint();
+    }
+
+    @Override
+    public void setBounds(int x, int y, int width, int height) {
+        super.setBounds(x, y, width, height);
+        updateTileSize();
+    }
+
+    /*
+    The updateTileSize method is called whenever the view gets a new size. When the board is fitted to the window,
+    the tiles are made as large as possible, while keeping them square. The board is centered when the view is larger
+    than the board. The sprite atlas is only drawn again when the tile size actually changed.
+     */
+    private void updateTileSize() {
+        int newTileSize = fitToWindow ? getFittingTileSize() : tileSize;
+        originX = Math.max(0, (getWidth() - tilesPerRow * newTileSize) / 2);
+        originY = Math.max(0, (getHeight() - numberOfRows * newTileSize) / 2);
+        if (newTileSize != tileSize || spriteAtlas == null) {
+            tileSize = newTileSize;
+            spriteAtlas = null;
+        }
+    }
+
+    // getFittingTileSize returns the largest tile size at which the whole board fits in the visible area
+    private int getFittingTileSize() {
+        Dimension visible = getParent() instanceof JViewport ? ((JViewport) getParent()).getExtentSize() : getSize();
+        if (visible.width <= 0 || visible.height <= 0) return DEFAULT_TILE_SIZE;
+        int fittingTileSize = Math.min(visible.width / tilesPerRow, visible.height / numberOfRows);
+        return Math.max(MIN_TILE_SIZE, Math.min(MAX_TILE_SIZE, fittingTileSize));
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        int preferredTileSize = fitToWindow ? getFittingTileSize() : tileSize;
+        return new Dimension(tilesPerRow * preferredTileSize, numberOfRows * preferredTileSize);
+    }
+
+    /*
+    The methods of the Scrollable interface tell the JScrollPane how to scroll the view. The arrows of the scroll bars
+    move one tile, clicking next to the knob moves the visible area minus one tile, so the player keeps a row or column
+    to hold on to. When the whole board fits in the window, the view follows the size of the window, so it is centered
+    and no scroll bars are shown.
+     */
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return tileSize;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        int visibleSize = orientation == SwingConstants.HORIZONTAL ? visibleRect.width : visibleRect.height;
+        return Math.max(tileSize, visibleSize - tileSize);
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return getParent() instanceof JViewport && getParent().getWidth() >= getPreferredSize().width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return getParent() instanceof JViewport && getParent().getHeight() >= getPreferredSize().height;
+    }
+
+    /*
+    The paintComponent method only paints the tiles that intersect the clip. That is never more than the visible
+    part of the view, and after a click just the rectangle around the changed tiles, so the cost of painting depends
+    on the size of the window, not on the size of the board.
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (spriteAtlas == null) spriteAtlas = new SpriteAtlas(this, iconCache, tileSize);
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+        int firstColumn = Math.max(0, (clip.x - originX) / tileSize);
+        int lastColumn = Math.min(tilesPerRow - 1, (clip.x + clip.width - 1 - originX) / tileSize);
+        int firstRow = Math.max(0, (clip.y - originY) / tileSize);
+        int lastRow = Math.min(numberOfRows - 1, (clip.y + clip.height - 1 - originY) / tileSize);
+        for (int row = firstRow; row <= lastRow; row++) {
+            int y = originY + row * tileSize;
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                spriteAtlas.paintSprite(g, getSprite(row * tilesPerRow + column), originX + column * tileSize, y);
+            }
+        }
+    }
+
+    private int getSprite(int tileID) {
+        int tileCode = getTileCode(tileID);
+        if (tileCode == GameSnapshot.HIDDEN) return SpriteAtlas.HIDDEN;
+        if (tileCode == GameSnapshot.FLAGGED) return SpriteAtlas.FLAG;
+        return SpriteAtlas.getRevealedSprite(tileCode == GameSnapshot.REVEALED_BOMB, tileCode - GameSnapshot.REVEALED);
+    }
+
+    // the tile codes are stored two per byte, tile n in the low half of byte n / 2 when n is even
+    private int getTileCode(int tileID) {
+        return (tileCodes[tileID >>> 1] >>> ((tileID & 1) << 2)) & 0xF;
+    }
+
+    private void setTileCode(int tileID, int tileCode) {
+        int shift = (tileID & 1) << 2;
+        tileCodes[tileID >>> 1] = (byte) (tileCodes[tileID >>> 1] & ~(0xF << shift) | tileCode << shift);
+    }
+
+    // The getTileIDAt method returns the tileID at the given coordinates, or -1 when they are outside the board.
+    public int getTileIDAt(int x, int y) {
+        if (x < originX || y < originY) return -1;
+        int column = (x - originX) / tileSize;
+        int row = (y - originY) / tileSize;
+        if (column >= tilesPerRow || row >= numberOfRows) return -1;
+        return row * tilesPerRow + column;
+    }
+
+    /*
+    The applySnapshot method stores the tile codes of the changed tiles in a GameSnapshot, and repaints them. It
+    determines the smallest rectangle around all changed tiles, and only repaints that. The hidden bombs of a lost game
+    are kept until showBombsBelow shows them. A full snapshot replaces the tile codes of all tiles, and repaints the
+    whole view.
+     */
+    public void applySnapshot(GameSnapshot snapshot) {
+        if (snapshot.getNumberOfHiddenBombs() > 0) {
+            hiddenBombTileIDs = new int[snapshot.getNumberOfHiddenBombs()];
+            for (int i = 0; i < hiddenBombTileIDs.length; i++) {
+                hiddenBombTileIDs[i] = snapshot.getHiddenBombTileID(i);
+            }
+            numberOfBombsShown = 0;
+        }
+        if (snapshot.isFull()) {
+            snapshot.copyAllTileCodes(tileCodes);
+            repaint();
+            return;
+        }
+        int firstColumn = Integer.MAX_VALUE, lastColumn = -1, firstRow = Integer.MAX_VALUE, lastRow = -1;
+        for (int i = 0; i < snapshot.size(); i++) {
+            int tileID = snapshot.getTileID(i);
+            setTileCode(tileID, snapshot.getTileCode(i));
+            int column = tileID % tilesPerRow;
+            int row = tileID / tilesPerRow;
+            firstColumn = Math.min(firstColumn, column);
+            lastColumn = Math.max(lastColumn, column);
+            firstRow = Math.min(firstRow, row);
+            lastRow = Math.max(lastRow, row);
+        }
+        if (lastColumn >= 0) repaintTiles(firstColumn, firstRow, lastColumn, lastRow);
+    }
+
+    /*
+    The showBombsBelow method shows the hidden bombs with a tileID below the given ID, after the game was lost. Calling
+    it with a growing ID reveals the bombs part by part, only the rows holding the newly shown bombs are repainted,
+    with a single repaint call however many bombs they hold.
+     */
+    public void showBombsBelow(int tileID) {
+        int firstBombShown = numberOfBombsShown;
+        while (numberOfBombsShown < hiddenBombTileIDs.length && hiddenBombTileIDs[numberOfBombsShown] < tileID) {
+            setTileCode(hiddenBombTileIDs[numberOfBombsShown++], GameSnapshot.REVEALED_BOMB);
+        }
+        if (numberOfBombsShown == firstBombShown) return;
+        int firstRow = hiddenBombTileIDs[firstBombShown] / tilesPerRow;
+        int lastRow = hiddenBombTileIDs[numberOfBombsShown - 1] / tilesPerRow;
+        repaintTiles(0, firstRow, tilesPerRow - 1, lastRow);
+    }
+
+    private void repaintTiles(int firstColumn, int firstRow, int lastColumn, int lastRow) {
+        repaint(originX + firstColumn * tileSize, originY + firstRow * tileSize,
+                (lastColumn - firstColumn + 1) * tileSize, (lastRow - firstRow + 1) * tileSize);
+    }
+}
@@ -0,0 +1,224 @@
+package com.minesweeper.UserInterface;
+
+import com.minesweeper.GameUtils.GameState;
+import com.minesweeper.gamefield.EndlessBoard;
+import com.minesweeper.gamefield.EndlessDelta;
+
+import javax.swing.AbstractAction;
+import javax.swing.JComponent;
+import javax.swing.KeyStroke;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+
+/*
+The EndlessView class shows an EndlessBoard. It works like the BoardView, it paints only the tiles that are visible,
+copying their sprites from a SpriteAtlas, but an endless board can't be placed in a JScrollPane, because there is no
+size to scroll over. The view keeps track of which part of the world it shows itself, as the world pixel in the center
+of the view, and the player moves around by dragging the board with the mouse, with the mouse wheel (holding shift for
+sideways), or with the arrow keys. Holding control while turning the mouse wheel zooms, like in the BoardView.
+
+Just like the BoardView, the EndlessView doesn't know the rules of the game, clicks are passed on to a
+TileClickListener with the coordinates of the tile.
+ */
+
+public class EndlessView extends JComponent {
+
+    private static final int MIN_TILE_SIZE = 8;
+    private static final int MAX_TILE_SIZE = 128;
+    private static final int DEFAULT_TILE_SIZE = 25;
+    private static final double ZOOM_STEP = 1.25;
+    private static final int DRAG_THRESHOLD = 4;
+    private static final int TILES_PER_SCROLL = 3;
+
+    public interface TileClickListener {
+        void tileClicked(int x, int y, MouseEvent e);
+    }
+
+    private final IconCache iconCache;
+    private EndlessBoard board;
+    private int tileSize = DEFAULT_TILE_SIZE;
+    private SpriteAtlas spriteAtlas;
+    // the world pixel shown in the center of the view, world pixel 0 is the left or top edge of tile 0
+    private long centerX;
+    private long centerY;
+    private Point pressedAt;
+    private boolean dragging;
+
+    public EndlessView(IconCache iconCache, EndlessBoard board, TileClickListener tileClickListener) {
+        this.iconCache = iconCache;
+        setBackground(Color.darkGray);
+        setOpaque(true);
+        setPreferredSize(new Dimension(800, 800));
+        setBoard(board);
+        MouseAdapter mouseAdapter = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                pressedAt = e.getPoint();
+                dragging = false;
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (pressedAt == null) return;
+                int dx = e.getX() - pressedAt.x;
+                int dy = e.getY() - pressedAt.y;
+                if (!dragging && Math.abs(dx) + Math.abs(dy) < DRAG_THRESHOLD) return;
+                dragging = true;
+                pan(-dx, -dy);
+                pressedAt = e.getPoint();
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                if (!dragging) tileClickListener.tileClicked(getTileX(e.getX()), getTileY(e.getY()), e);
+                pressedAt = null;
+                dragging = false;
+            }
+        };
+        addMouseListener(mouseAdapter);
+        addMouseMotionListener(mouseAdapter);
+        addMouseWheelListener(this::mouseWheelMoved);
+        bindPanKey(KeyEvent.VK_LEFT, -1, 0);
+        bindPanKey(KeyEvent.VK_RIGHT, 1, 0);
+        bindPanKey(KeyEvent.VK_UP, 0, -1);
+        bindPanKey(KeyEvent.VK_DOWN, 0, 1);
+    }
+
+    // setBoard shows a new board, centered on the world origin, where the game starts
+    public void setBoard(EndlessBoard board) {
+        this.board = board;
+        this.centerX = tileSize / 2;
+        this.centerY = tileSize / 2;
+        repaint();
+    }
+
+    private void bindPanKey(int keyCode, int tilesX, int tilesY) {
+        String actionName = "pan" + keyCode;
+        getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(keyCode, 0), actionName);
+        getActionMap().put(actionName, new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                pan(tilesX * TILES_PER_SCROLL * tileSize, tilesY * TILES_PER_SCROLL * tileSize);
+            }
+        });
+    }
+
+    private void mouseWheelMoved(MouseWheelEvent e) {
+        if (e.isControlDown()) {
+            zoom(e.getWheelRotation() < 0 ? ZOOM_STEP : 1 / ZOOM_STEP, e.getPoint());
+        } else if (e.isShiftDown()) {
+            pan(e.getWheelRotation() * TILES_PER_SCROLL * tileSize, 0);
+        } else {
+            pan(0, e.getWheelRotation() * TILES_PER_SCROLL * tileSize);
+        }
+    }
+
+    // The pan method moves the visible part of the world by the given number of pixels.
+    public void pan(int dx, int dy) {
+        centerX += dx;
+        centerY += dy;
+        repaint();
+    }
+
+    /*
+    The zoom method multiplies the tile size by the given factor, keeping the point of the world under the anchor
+    where it is.
+     */
+    public void zoom(double factor, Point anchor) {
+        int newTileSize = (int) Math.round(tileSize * factor);
+        if (newTileSize == tileSize) newTileSize += factor > 1 ? 1 : -1;
+        newTileSize = Math.max(MIN_TILE_SIZE, Math.min(MAX_TILE_SIZE, newTileSize));
+        if (newTileSize == tileSize) return;
+        double anchorX = (getLeft() + anchor.x) / (double) tileSize;
+        double anchorY = (getTop() + anchor.y) / (double) tileSize;
+        tileSize = newTileSize;
+        spriteAtlas = null;
+        centerX = Math.round(anchorX * tileSize) - anchor.x + getWidth() / 2;
+        centerY = Math.round(anchorY * tileSize) - anchor.y + getHeight() / 2;
+        repaint();
+    }
+
+    // getLeft and getTop return the world pixel at the left and top edge of the view
+    private long getLeft() {
+        return centerX - getWidth() / 2;
+    }
+
+    private long getTop() {
+        return centerY - getHeight() / 2;
+    }
+
+    public int getTileX(int x) {
+        return (int) Math.floorDiv(getLeft() + x, (long) tileSize);
+    }
+
+    public int getTileY(int y) {
+        return (int) Math.floorDiv(getTop() + y, (long) tileSize);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (spriteAtlas == null) spriteAtlas = new SpriteAtlas(this, iconCache, tileSize);
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+        long left = getLeft();
+        long top = getTop();
+        long firstColumn = Math.floorDiv(left + clip.x, (long) tileSize);
+        long lastColumn = Math.floorDiv(left + clip.x + clip.width - 1, (long) tileSize);
+        long firstRow = Math.floorDiv(top + clip.y, (long) tileSize);
+        long lastRow = Math.floorDiv(top + clip.y + clip.height - 1, (long) tileSize);
+        for (long row = firstRow; row <= lastRow; row++) {
+            int y = (int) (row * tileSize - top);
+            for (long column = firstColumn; column <= lastColumn; column++) {
+                spriteAtlas.paintSprite(g, getSprite((int) column, (int) row), (int) (column * tileSize - left), y);
+            }
+        }
+    }
+
+    private int getSprite(int x, int y) {
+        if (board.isRevealed(x, y)) {
+            return SpriteAtlas.getRevealedSprite(board.isBomb(x, y), board.getAdjacentBombs(x, y));
+        }
+        if (board.isFlagged(x, y)) return SpriteAtlas.FLAG;
+        return SpriteAtlas.HIDDEN;
+    }
+
+    /*
+    The repaintChanges method repaints the rectangle around the tiles in the EndlessDelta of a click, as far as it is
+    visible. After the game is lost the whole view is repainted.
+     */
+    public void repaintChanges(EndlessDelta delta) {
+        if (delta.isEmpty()) return;
+        if (board.getState() == GameState.LOST) {
+            repaint();
+            return;
+        }
+        long firstX = Long.MAX_VALUE, lastX = Long.MIN_VALUE, firstY = Long.MAX_VALUE, lastY = Long.MIN_VALUE;
+        for (int i = 0; i < delta.size(); i++) {
+            firstX = Math.min(firstX, delta.getX(i));
+            lastX = Math.max(lastX, delta.getX(i));
+            firstY = Math.min(firstY, delta.getY(i));
+            lastY = Math.max(lastY, delta.getY(i));
+        }
+        repaintTiles(firstX, firstY, lastX, lastY);
+    }
+
+    public void repaintTile(int x, int y) {
+        repaintTiles(x, y, x, y);
+    }
+
+    private void repaintTiles(long firstX, long firstY, long lastX, long lastY) {
+        long left = Math.max(0, firstX * tileSize - getLeft());
+        long top = Math.max(0, firstY * tileSize - getTop());
+        long right = Math.min(getWidth(), (lastX + 1) * tileSize - getLeft());
+        long bottom = Math.min(getHeight(), (lastY + 1) * tileSize - getTop());
+        if (right > left && bottom > top) repaint((int) left, (int) top, (int) (right - left), (int) (bottom - top));
+    }
+}
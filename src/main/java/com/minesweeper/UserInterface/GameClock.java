@@ -0,0 +1,67 @@
+package com.minesweeper.UserInterface;
+
+import javax.swing.Timer;
+
+/*
+The GameClock class keeps track of the time a game takes. The time used to be kept by the displayScorePanel, which
+started a new Thread for every game, waking up every second until the game was over. A new game cleared the game over
+flag again before the old thread had noticed it, so the old threads never stopped, and every thread rebuilt the labels
+of the score panel outside the event dispatch thread. The time itself came from LocalTime, in whole seconds, and went
+negative when a game was played across midnight.
+
+The GameClock measures the time with System.nanoTime, which only ever moves forward, and reports it in milliseconds.
+There is one GameClock for the whole GameInterface, which is started when the first tile of a game is revealed, stopped
+when the game is over, and reset for a new game. While it runs, a single javax.swing.Timer calls the tick listener
+every TICK_INTERVAL milliseconds, on the event dispatch thread, so the listener can update the labels directly. When
+the clock is stopped the Timer is stopped as well, so nothing runs between games.
+
+The GameClock is only used on the event dispatch thread, so it doesn't need to be thread safe.
+ */
+
+class GameClock {
+
+    private static final int TICK_INTERVAL = 100;
+
+    private final Timer timer;
+    private long startNanos;
+    private long elapsedNanos;
+    private boolean running;
+
+    GameClock(Runnable tickListener) {
+        this.timer = new Timer(TICK_INTERVAL, e -> tickListener.run());
+        this.timer.setCoalesce(true);
+    }
+
+    // start starts the clock from zero, or does nothing when it is already running
+    void start() {
+        if (running) return;
+        running = true;
+        elapsedNanos = 0;
+        startNanos = System.nanoTime();
+        timer.start();
+    }
+
+    // stop freezes the clock at the time elapsed so far
+    void stop() {
+        if (!running) return;
+        elapsedNanos = System.nanoTime() - startNanos;
+        running = false;
+        timer.stop();
+    }
+
+    // reset stops the clock and sets it back to zero, for a new game
+    void reset() {
+        timer.stop();
+        running = false;
+        elapsedNanos = 0;
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    long getElapsedMillis() {
+        long nanos = running ? System.nanoTime() - startNanos : elapsedNanos;
+        return nanos / 1_000_000;
+    }
+}
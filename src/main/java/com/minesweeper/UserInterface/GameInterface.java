@@ -1,12 +1,18 @@
 package com.minesweeper.UserInterface;
 
+import com.minesweeper.GameUtils.BoardSpec;
 import com.minesweeper.GameUtils.DifficultyLevel;
 import com.minesweeper.HighScores.HighScore;
 import com.minesweeper.HighScores.HighScoreUtils;
-import com.minesweeper.gamefield.CreateGameFieldFunctions;
-import com.minesweeper.gamefield.GameField;
+import com.minesweeper.GameUtils.GameState;
+import com.minesweeper.gamefield.EndlessBoard;
+import com.minesweeper.gamefield.EndlessDelta;
+import com.minesweeper.gamefield.GameLoop;
+import com.minesweeper.gamefield.GameSession;
+import com.minesweeper.gamefield.GameSnapshot;
+import com.minesweeper.gamefield.RandomStrategy;
+import com.minesweeper.Solver.NoGuessBoardPool;
 
-import javax.imageio.ImageIO;
 import javax.swing.*;
 import javax.swing.border.EtchedBorder;
 import java.awt.*;
@@ -15,11 +21,8 @@ import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.net.URL;
-import java.time.*;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 /*
 The GameInterface Class is where the GUI will be created, based on an abstraction of a GameField as created by our
@@ -30,49 +33,62 @@ which they will often need.
 
 public class GameInterface {
 
-    private DifficultyLevel difficultyLevel;
+    private static final int NO_GUESS_POOL_SIZE = 32;
+    private static final int INITIAL_TILE_SIZE = 40;
+    private static final int DIALOG_ICON_SIZE = 40;
+    private static final double ZOOM_FACTOR = 1.25;
+    private static final int GAME_OVER_FRAMES = 30;
+    private static final int GAME_OVER_FRAME_INTERVAL = 16;
+
+    private BoardSpec boardSpec;
     private int NUMBER_OF_ROWS;
     private int NUMBER_OF_COLUMNS;
     private int NUMBER_OF_TILES;
     private int NUMBER_OF_BOMBS;
-    private GameField gameField;
-    private List<TileUserInterface> gameFieldTiles;
-    private JLabel bombImage;
-    private boolean gameOver;
-    private boolean firstClick;
+    private GameLoop gameLoop;
+    private long gameID;
+    private GameState gameState;
+    private int remainingTiles;
+    private NoGuessBoardPool noGuessBoardPool;
+    private IconCache iconCache;
     private JFrame gameFieldUserInterface;
-    private TileContainer tileContainer;
-    private int totalClickedtiles;
+    private BoardView boardView;
     private displayScorePanel scorePanel;
+    private GameClock gameClock;
+    private GameOverReveal gameOverReveal;
+    private boolean animateGameOver = true;
     private HighScoreUtils highscores;
-    private long timeElapsed;
 
     public GameInterface(DifficultyLevel difficultyLevel) {
-        createGameSettings(difficultyLevel);
+        createGameSettings(difficultyLevel.getBoardSpec());
+        gameLoop = new GameLoop(snapshot -> SwingUtilities.invokeLater(() -> applySnapshot(snapshot)));
+        startNewGameSession();
+        iconCache = createIconCache();
+        gameClock = new GameClock(() -> scorePanel.refreshScoreLabels());
         createGameUserInterface();
-        bombImage = setBombImage();
-        gameOver = false;
-        firstClick = true;
         highscores = HighScoreUtils.createHighScores();
+        highscores.prefetchHighScores();
 
     }
 
     /*
     The createGameUserInterface method creates a new JFrame top-level container, which will hold the other GUI elements
     we want in our game. The JFrame constructor sets the title. Next, a display icon, the layout, dimensions, position
-    on the screen, en default close operations are set.
+    on the screen, en default close operations are set. The game was already started in the GameLoop before the
+    BoardView existed, so the BoardView asks for a full snapshot, instead of relying on having seen every snapshot.
      */
 
     private void createGameUserInterface() {
         gameFieldUserInterface = new JFrame("Mine Sweeper Project");
-        gameFieldUserInterface.setIconImage((imageLoader("images/boom.png")));
+        gameFieldUserInterface.setIconImage(iconCache.getImage("boom"));
         gameFieldUserInterface.setLayout(new BorderLayout());
         Dimension GAME_FIELD_DIMENSION = new Dimension(800, 800);
         gameFieldUserInterface.setSize(GAME_FIELD_DIMENSION);
-        tileContainer = new TileContainer();
+        boardView = new BoardView(iconCache, boardSpec, this::determineMouseClickEvents);
+        gameLoop.requestFullSnapshot();
         scorePanel = new displayScorePanel();
         gameFieldUserInterface.add(scorePanel, BorderLayout.SOUTH);
-        gameFieldUserInterface.add(tileContainer, BorderLayout.CENTER);
+        gameFieldUserInterface.add(createBoardScrollPane(), BorderLayout.CENTER);
         gameFieldUserInterface.setLocationRelativeTo(null);
         gameFieldUserInterface.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
         gameFieldUserInterface.add(createMenu(), BorderLayout.NORTH);
@@ -80,16 +96,28 @@ public class GameInterface {
     }
 
     /*
-    The createGameSettings method determines the number of rows, columns and total tiles based on the DifficultyLevel
-    selected by the player.
+    The BoardView is placed in a JScrollPane, so boards that don't fit in the window can be scrolled. The viewport gets
+    the same background as the board, which shows around the board when the window is larger than the board.
+     */
+
+    private JScrollPane createBoardScrollPane() {
+        JScrollPane boardScrollPane = new JScrollPane(boardView);
+        boardScrollPane.setBorder(BorderFactory.createEmptyBorder());
+        boardScrollPane.getViewport().setBackground(boardView.getBackground());
+        return boardScrollPane;
+    }
+
+    /*
+    The createGameSettings method determines the number of rows, columns and total tiles based on the BoardSpec
+    selected by the player, which is either one of the DifficultyLevels, or a custom board.
      */
 
-    private void createGameSettings(DifficultyLevel difficultyLevel) {
-        this.difficultyLevel = difficultyLevel;
-        NUMBER_OF_ROWS = difficultyLevel.getFieldWidthInTiles();
-        NUMBER_OF_COLUMNS = difficultyLevel.getFieldLengthInTiles();
-        NUMBER_OF_TILES = difficultyLevel.getNumberOfTiles();
-        NUMBER_OF_BOMBS = difficultyLevel.getNumberOfBombs();
+    private void createGameSettings(BoardSpec boardSpec) {
+        this.boardSpec = boardSpec;
+        NUMBER_OF_ROWS = boardSpec.getFieldWidthInTiles();
+        NUMBER_OF_COLUMNS = boardSpec.getFieldLengthInTiles();
+        NUMBER_OF_TILES = boardSpec.getNumberOfTiles();
+        NUMBER_OF_BOMBS = boardSpec.getNumberOfBombs();
     }
 
     /*
@@ -101,11 +129,45 @@ public class GameInterface {
     private JMenuBar createMenu() {
         JMenuBar menu = new JMenuBar();
         menu.add(createOptionsMenu());
+        menu.add(createViewMenu());
         menu.add(createHighScoreMenu());
         menu.add(createHelpMenu());
         return menu;
     }
 
+    /*
+    The createViewMenu method adds options for zooming the game field in and out, around the center of the visible
+    part of the board, and for fitting the board to the window again. Zooming can also be done by holding control while
+    turning the mouse wheel, see the BoardView class. The animate game over option can be turned off to show all bombs
+    at once when a game is lost, see the gameOverSequence method.
+     */
+
+    private JMenu createViewMenu() {
+        JMenu viewMenu = new JMenu("View");
+        JMenuItem zoomInOption = new JMenuItem("Zoom in");
+        zoomInOption.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_EQUALS, InputEvent.CTRL_DOWN_MASK));
+        zoomInOption.addActionListener(e -> zoomBoard(ZOOM_FACTOR));
+        JMenuItem zoomOutOption = new JMenuItem("Zoom out");
+        zoomOutOption.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_MINUS, InputEvent.CTRL_DOWN_MASK));
+        zoomOutOption.addActionListener(e -> zoomBoard(1 / ZOOM_FACTOR));
+        JMenuItem fitToWindowOption = new JMenuItem("Fit to window");
+        fitToWindowOption.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_0, InputEvent.CTRL_DOWN_MASK));
+        fitToWindowOption.addActionListener(e -> boardView.fitToWindow());
+        JCheckBoxMenuItem animateGameOverOption = new JCheckBoxMenuItem("Animate game over", animateGameOver);
+        animateGameOverOption.addActionListener(e -> animateGameOver = animateGameOverOption.isSelected());
+        viewMenu.add(zoomInOption);
+        viewMenu.add(zoomOutOption);
+        viewMenu.add(fitToWindowOption);
+        viewMenu.addSeparator();
+        viewMenu.add(animateGameOverOption);
+        return viewMenu;
+    }
+
+    private void zoomBoard(double factor) {
+        Rectangle visibleRect = boardView.getVisibleRect();
+        boardView.zoom(factor, new Point((int) visibleRect.getCenterX(), (int) visibleRect.getCenterY()));
+    }
+
     /*
     The createHelpMenu adds a single JMenuItem to the Help menu. The how to play option contains an actionlistener,
     which will check if it can create a Desktop Object from the players system, and if so, it will call the browse
@@ -130,8 +192,9 @@ public class GameInterface {
 
     /*
     The createOptionsMenu method generates the first JMenu object to be added to the menu bar. The options menu will
-    contain options for restarting the game, selecting difficulty and exiting the game. The JMenu is populated with
-    JMenuItems. Each option is either a JMenuItem, or a JMenu on its own, in which case a submenu is created.
+    contain options for restarting the game, selecting difficulty, playing without guessing, starting an endless game
+    and exiting the game. The JMenu is populated with JMenuItems. Each option is either a JMenuItem, or a JMenu on its
+    own, in which case a submenu is created.
     To increase readability the creation of the select difficulty submenu is done in its own method. Listening for
     events like the player selecting an option is explained in the create DifficultySubMenu method.
      */
@@ -141,11 +204,17 @@ public class GameInterface {
         JMenuItem restartGameOption = new JMenuItem("Restart");
         restartGameOption.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_R, InputEvent.SHIFT_MASK));
         JMenuItem exitOption = new JMenuItem("Exit");
-        restartGameOption.addActionListener((e) -> tileContainer.resetGame());
+        JCheckBoxMenuItem noGuessOption = new JCheckBoxMenuItem("No guessing");
+        JMenuItem endlessOption = new JMenuItem("Endless mode");
+        restartGameOption.addActionListener((e) -> resetGame());
+        endlessOption.addActionListener((e) -> openEndlessGame());
         exitOption.addActionListener((e) -> System.exit(0));
+        noGuessOption.addActionListener((e) -> setNoGuessMode(noGuessOption.isSelected()));
         optionsMenu.add(restartGameOption);
         optionsMenu.addSeparator();
         optionsMenu.add(createDifficultySubMenu());
+        optionsMenu.add(noGuessOption);
+        optionsMenu.add(endlessOption);
         optionsMenu.addSeparator();
         optionsMenu.add(exitOption);
         return optionsMenu;
@@ -158,6 +227,9 @@ public class GameInterface {
     Functional interfaces can be implemented either by creating anonymous inner classes, or with lamba expressions,
     or in some cases method references. The functional method of the ActionListener interface is actionPerformed, in
     this case it is implemented using a lambda expression.
+
+    The custom option lets the player choose the size of the board and the number of bombs. A custom board is not one of
+    the difficulty levels, so none of those stays selected.
      */
 
     private JMenu createDifficultySubMenu() {
@@ -168,17 +240,62 @@ public class GameInterface {
         difficultyButtonGroup.add(beginnerButton);
         JMenuItem intermediateButton = new JRadioButtonMenuItem("Intermediate");
         JMenuItem expertButton = new JRadioButtonMenuItem("Expert");
-        beginnerButton.addActionListener((e) -> tileContainer.resetGame(DifficultyLevel.BEGINNER));
-        intermediateButton.addActionListener((e) -> tileContainer.resetGame(DifficultyLevel.INTERMEDIATE));
-        expertButton.addActionListener((e) -> tileContainer.resetGame(DifficultyLevel.EXPERT));
+        JMenuItem customButton = new JMenuItem("Custom...");
+        beginnerButton.addActionListener((e) -> resetGame(DifficultyLevel.BEGINNER.getBoardSpec()));
+        intermediateButton.addActionListener((e) -> resetGame(DifficultyLevel.INTERMEDIATE.getBoardSpec()));
+        expertButton.addActionListener((e) -> resetGame(DifficultyLevel.EXPERT.getBoardSpec()));
+        customButton.addActionListener((e) -> {
+            BoardSpec customBoardSpec = askForCustomBoardSpec();
+            if (customBoardSpec != null) {
+                if (!customBoardSpec.isPreset()) difficultyButtonGroup.clearSelection();
+                resetGame(customBoardSpec);
+            }
+        });
         difficultyButtonGroup.add(intermediateButton);
         difficultyButtonGroup.add(expertButton);
         selectDifficultyMenu.add(beginnerButton);
         selectDifficultyMenu.add(intermediateButton);
         selectDifficultyMenu.add(expertButton);
+        selectDifficultyMenu.addSeparator();
+        selectDifficultyMenu.add(customButton);
         return selectDifficultyMenu;
     }
 
+    /*
+    The askForCustomBoardSpec method shows a dialog in which the player enters the width and height of the board and
+    the number of bombs. It starts with the values of the current board. It returns null when the player cancels, and
+    asks again when the values don't make a valid board, telling the player why.
+     */
+
+    private BoardSpec askForCustomBoardSpec() {
+        JSpinner widthSpinner = new JSpinner(new SpinnerNumberModel(boardSpec.getFieldLengthInTiles(), 1,
+                BoardSpec.MAX_TILES_PER_SIDE, 1));
+        JSpinner heightSpinner = new JSpinner(new SpinnerNumberModel(boardSpec.getFieldWidthInTiles(), 1,
+                BoardSpec.MAX_TILES_PER_SIDE, 1));
+        JSpinner bombsSpinner = new JSpinner(new SpinnerNumberModel(boardSpec.getNumberOfBombs(), 0,
+                Integer.MAX_VALUE, 1));
+        JPanel customBoardPanel = new JPanel(new GridLayout(3, 2, 5, 5));
+        customBoardPanel.add(new JLabel("Width (tiles):"));
+        customBoardPanel.add(widthSpinner);
+        customBoardPanel.add(new JLabel("Height (tiles):"));
+        customBoardPanel.add(heightSpinner);
+        customBoardPanel.add(new JLabel("Bombs:"));
+        customBoardPanel.add(bombsSpinner);
+
+        while (true) {
+            int n = JOptionPane.showConfirmDialog(gameFieldUserInterface, customBoardPanel, "Custom board",
+                    JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+            if (n != JOptionPane.OK_OPTION) return null;
+            try {
+                return BoardSpec.of((Integer) widthSpinner.getValue(), (Integer) heightSpinner.getValue(),
+                        (Integer) bombsSpinner.getValue());
+            } catch (IllegalArgumentException e) {
+                JOptionPane.showMessageDialog(gameFieldUserInterface, e.getMessage(), "Invalid board",
+                        JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
+
     /*
     In the next section, the high score menu will be create. In the createHighScoreMenu method, JMenuItems for
     beginner, intermediate and expert high scores are added to a JMenu. The action listeners call the getHighScore
@@ -202,34 +319,32 @@ public class GameInterface {
     }
 
     /*
-    The getHighScores method consists of a switch statement, determining which list of high scores to display
+    The getHighScores method shows the high scores of a difficulty level. The dialog is opened right away with the
+    high scores that are cached, which are empty the first time, see HighScoreUtils. When those are not fresh, fresh
+    ones are fetched in the background, and the dialog is filled again when they arrive, on the event dispatch thread.
      */
 
     private void getHighScores(DifficultyLevel difficultyLevel) {
-        switch (difficultyLevel) {
-            case BEGINNER: {
-                displayHighScores(highscores.getBeginnerHighScores());
-                break;
-            }
-            case INTERMEDIATE: {
-                displayHighScores(highscores.getIntermediateHighScores());
-                break;
-            }
-            case EXPERT: {
-                displayHighScores(highscores.getExpertHighScores());
-                break;
-            }
-        }
+        List<HighScore> cachedHighScores = highscores.getCachedHighScores(difficultyLevel);
+        JPanel highscorePanel = displayHighScores(cachedHighScores);
+        highscores.getHighScores(difficultyLevel).thenAccept(freshHighScores -> {
+            if (freshHighScores.equals(cachedHighScores)) return;
+            SwingUtilities.invokeLater(() -> {
+                highscorePanel.removeAll();
+                createSingleHighScorePanel(freshHighScores, highscorePanel);
+                highscorePanel.revalidate();
+                highscorePanel.repaint();
+            });
+        });
     }
 
     /*
     The displayHighScores method creates a JDialog. It adds a JPanel to the Dialog, and for each HighScore in the list
     of HighScores, it adds a JLabel containing the position on the leader board, the name of the player, and the time
-    elapsed.
+    elapsed. The lists of the HighScoreUtils are sorted already. The JPanel is returned, so it can be filled again.
      */
 
-    private void displayHighScores(List<? extends HighScore> highScores) {
-        Collections.sort(highScores);
+    private JPanel displayHighScores(List<? extends HighScore> highScores) {
         JDialog highScoreDialog = new JDialog(gameFieldUserInterface, "Highscores");
         highScoreDialog.setSize(200, 325);
         highScoreDialog.setLocationRelativeTo(gameFieldUserInterface);
@@ -240,6 +355,7 @@ public class GameInterface {
         highScoreDialog.add(highscorePanel);
         highScoreDialog.validate();
         highScoreDialog.setVisible(true);
+        return highscorePanel;
     }
 
     private void createSingleHighScorePanel(List<? extends HighScore> highScores, JPanel highscorePanel) {
@@ -250,7 +366,8 @@ public class GameInterface {
             singleScorePanel
                     .add(new JLabel(" " + position + ". " + highScore.getPlayerName()), BorderLayout.WEST);
             singleScorePanel
-                    .add(new JLabel(scorePanel.formatTimeElapsed(highScore.getTimeElapsed()) + " "), BorderLayout.EAST);
+                    .add(new JLabel(scorePanel.formatTimeElapsed(highScore.getTimeElapsedInMillis(), true) + " "),
+                            BorderLayout.EAST);
             singleScorePanel.setBorder(BorderFactory.createEtchedBorder(EtchedBorder.LOWERED));
             highscorePanel.add(singleScorePanel, BorderLayout.NORTH);
             position++;
@@ -258,514 +375,370 @@ public class GameInterface {
     }
 
     /*
-    The Method setBombImage is added here, because caching the bomb image on starting the game gives great performance
-    benefits. Otherwise the gameOverSequence method in the TileUserFace innerclass below, would have to perform I/O-
-    operations for every bomb tile. I/O is relatively slow.
-
-    I changed to way to get images to enable packaging the application into a single executable jar. I originally used
-    the following method:
-
-            try {
-                BufferedImage image = ImageIO.read(new File("src/main/resources/images/bomb.png"));
-                Image scaleImage = image.getScaledInstance(40, 40, Image.SCALE_SMOOTH);
-                JLabel jimage = new JLabel(new ImageIcon(scaleImage));
-                add(jimage);
-                validate();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-
-     However this requires changing the path before packaging, because the maven packaging will put the images in the
-     target class. And the src directory is no longer on the classpath, so when running the jar the application will not
-     be able to find the images.
+    The createIconCache method decodes all images the tiles can show up front, while the game is starting, so the first
+    reveal of a number doesn't have to wait for it. See the IconCache class.
      */
 
-    private JLabel setBombImage() {
-        Image image = imageLoader("images/bomb.png")
-                .getScaledInstance(40, 40, Image.SCALE_SMOOTH);
-
-        return new JLabel(new ImageIcon(image));
+    private IconCache createIconCache() {
+        IconCache icons = new IconCache(INITIAL_TILE_SIZE);
+        for (int numberOfAdjacentBombs = 1; numberOfAdjacentBombs <= 8; numberOfAdjacentBombs++) {
+            icons.getTileIcon(String.valueOf(numberOfAdjacentBombs));
+        }
+        icons.getTileIcon("flag");
+        icons.getTileIcon("bomb");
+        return icons;
     }
 
     /*
-    The imageLoader method was added later to facilitate packaging. It first obtains the context Classloader of the
-    currently executing thread. A ClassLoader is either a java class, or an instance written in system native code,
-    which is responsible for dynamically loading classes into your application when they are needed.
-
-    The getResource method of a ClassLoader can take a path relative to the classpath. It recursively passes the method
-    up the ClassLoader hierarchy until one of the ClassLoaders is able to find the specified path. It then returns a
-    URL object which can be used for reading the resource. This methods determines the URL needed at runtime, meaning it
-    will always find the requested resource.
+    The rules of the game are kept by a GameSession, the GameInterface only displays what the GameSession tells it.
+    Starting a new game simply means creating a new GameSession, and handing it to the GameLoop, which plays it from
+    then on. The gameID tells the snapshots of the new game apart from those of the old one that may still be on their
+    way to the event dispatch thread.
      */
-
-    private Image imageLoader(String pathAndFileName) {
-        URL url = Thread.currentThread().getContextClassLoader().getResource(pathAndFileName);
-        try {
-            if (url != null) {
-                return ImageIO.read(url);
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+    private void startNewGameSession() {
+        RandomStrategy random = RandomStrategy.splittable(ThreadLocalRandom.current().nextLong());
+        GameSession gameSession;
+        if (noGuessBoardPool != null) {
+            noGuessBoardPool.setBoardSpec(boardSpec);
+            gameSession = new GameSession(boardSpec, random, noGuessBoardPool);
+        } else {
+            gameSession = new GameSession(boardSpec, random);
         }
-        return null;
-    }
-
-    private void setGameOver() {
-        gameOver = true;
-    }
-
-    private void resetGameOver() {
-        gameOver = false;
-    }
-
-    private void resetFirstClick() {
-        firstClick = true;
+        gameID = gameLoop.newGame(gameSession);
+        gameState = GameState.NOT_STARTED;
+        remainingTiles = boardSpec.getNumberOfTiles() - boardSpec.getNumberOfBombs();
     }
 
     /*
-    The main component of the GUI will be the playing field, this is represented by the TileContainer class. As the
-    name implies the TileContainer class acts as a container holding the actual tiles. The tiles are spread out in a
-    GridLayout, where the number of rows and columns are determined by the difficulty.
+    The setNoGuessMode method switches between ordinary random game fields, and game fields that can be solved
+    without guessing. Those game fields are prepared in the background by a NoGuessBoardPool, so the first click
+    normally doesn't have to wait for them. The setting takes effect from the next game.
      */
-
-    private class TileContainer extends JPanel {
-
-        TileContainer() {
-            super(new GridLayout(NUMBER_OF_ROWS, NUMBER_OF_COLUMNS));
-            addTiles();
-            setPreferredSize(new Dimension(600, 600));
-            validate();
-
-        }
-
-        /*
-        The addTiles method adds tiles to the actual visible game field. It adds the number of tiles, specified earlier
-        by the difficulty. It also adds the tiles to a list of game tiles for future reference. I used ArrayList
-        because ArrayList maintains an order, based on the order in which items are put in. This ensures that the index
-        we give the TileUserInterface corresponds to the index of the abstract Tile generated by the game engine.
-         */
-
-        private void addTiles() {
-            gameFieldTiles = new ArrayList<>();
-            for (int i = 0; i < NUMBER_OF_TILES; i++) {
-                TileUserInterface tile = new TileUserInterface(this, i);
-                gameFieldTiles.add(tile);
-                add(tile);
-            }
-        }
-
-        /*
-        The resetGame method removes all tiles from the tileContainer, it then starts a new game, generating a new
-        random list of tiles. It also calls the addTiles method again, adding new TileUserInterfaces to the container.
-        There is also an overloaded version of resetGame which takes a DifficultyLevel as an argument. This makes it
-        easier to implement an option with which a player can choose the desired difficulty.
-         */
-
-        void resetGame() {
-            removeAll();
-            addTiles();
-            validate();
-            resetGameOver();
-            resetFirstClick();
-            totalClickedtiles = 0;
-            resetScorePanel();
-        }
-
-        void resetGame(DifficultyLevel difficultyLevel) {
-            createGameSettings(difficultyLevel);
-            tileContainer.setLayout(new GridLayout(NUMBER_OF_ROWS, NUMBER_OF_COLUMNS));
-            removeAll();
-            addTiles();
-            validate();
-            resetGameOver();
-            resetFirstClick();
-            totalClickedtiles = 0;
-            resetScorePanel();
+    private void setNoGuessMode(boolean noGuess) {
+        if (noGuess && noGuessBoardPool == null) {
+            noGuessBoardPool = new NoGuessBoardPool(boardSpec, NO_GUESS_POOL_SIZE,
+                    Runtime.getRuntime().availableProcessors());
+        } else if (!noGuess && noGuessBoardPool != null) {
+            noGuessBoardPool.shutdown();
+            noGuessBoardPool = null;
         }
     }
 
-    private void resetScorePanel() {
-        gameFieldUserInterface.remove(scorePanel);
-        scorePanel = new displayScorePanel();
-        gameFieldUserInterface.add(scorePanel, BorderLayout.SOUTH);
-        gameFieldUserInterface.validate();
-        scorePanel.displayScore();
-    }
-
     /*
-    The TileUserInterface class represents the actual visible tiles, the player can click on. It is called
-    TileUserInterface to clearly distinguish between the GUI component and the abstraction which is just called Tile.
+    The openEndlessGame method opens the endless mode in a window of its own, next to the normal game. The world of an
+    endless game is an EndlessBoard, shown by an EndlessView, see those classes. The game starts by revealing the tile
+    at the origin of the world, which is always safe, and ends when a bomb is revealed. The score is the number of
+    revealed tiles, shown at the bottom of the window together with the number of chunks in memory.
      */
 
-    private class TileUserInterface extends JPanel {
-        private int tileID;
-        private boolean isClicked;
-        private TileContainer container;
-
-        TileUserInterface(TileContainer tileContainer, int tileID) {
-            super(new GridBagLayout());
-            this.tileID = tileID;
-            this.isClicked = false;
-            this.container = tileContainer;
-            setTileAttributes(tileID);
-        }
+    private void openEndlessGame() {
+        EndlessGameFrame endlessGameFrame = new EndlessGameFrame();
+        endlessGameFrame.setLocationRelativeTo(gameFieldUserInterface);
+        endlessGameFrame.setVisible(true);
+    }
 
-        private void setTileAttributes(int tileID) {
-            setPreferredSize(new Dimension(5, 5));
-            setBackground(Color.darkGray);
-            setBorder(BorderFactory.createRaisedBevelBorder());
-            determineMouseActions(tileID);
+    private class EndlessGameFrame extends JFrame {
+        private final JLabel endlessScoreLabel = new JLabel();
+        private final EndlessView endlessView;
+        private EndlessBoard endlessBoard;
+
+        EndlessGameFrame() {
+            super("Mine Sweeper Project - Endless");
+            setIconImage(iconCache.getImage("boom"));
+            endlessBoard = new EndlessBoard(ThreadLocalRandom.current().nextLong());
+            endlessView = new EndlessView(iconCache, endlessBoard, this::determineMouseClickEvents);
+            startEndlessGame();
+            setLayout(new BorderLayout());
+            add(endlessView, BorderLayout.CENTER);
+            add(endlessScoreLabel, BorderLayout.SOUTH);
+            setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+            pack();
         }
 
-        /*
-        The determineMouseActions method determines what happens when the player clicks a mouse button, either left or
-        right. addMouseListener takes a MouseListener object as its argument. In this case an anonymous inner class is
-        created, which acts as a class implementing MouseListener, this allows us to implement the methods for the
-        different mouse events.
-         */
-
-        private void determineMouseActions(int tileID) {
-            addMouseListener(new MouseListener() {
-                @Override
-                public void mouseClicked(MouseEvent e) {
-                    determineMouseClickEvents(e, tileID);
-                }
-
-                @Override
-                public void mousePressed(MouseEvent e) {
-                }
-
-                @Override
-                public void mouseReleased(MouseEvent e) {
-                }
-
-                @Override
-                public void mouseEntered(MouseEvent e) {
-                }
-
-                @Override
-                public void mouseExited(MouseEvent e) {
-                }
-            });
+        private void startEndlessGame() {
+            endlessBoard.reveal(0, 0);
+            endlessView.setBoard(endlessBoard);
+            refreshEndlessScore();
         }
 
-        /*
-         The determineMouseClickEvents method determines if the user clicked right or left using static methods from
-         SwingUtilities. If the player right clicked on a tile that has not yet been clicked on, the setFlagIcon method
-         is called. If the player left clicked on a tile, it first removes possible icons set earlier, then the clicked
-         status is set to true, and the leftMouseClickEvents method is called.
-         */
-
-        private void determineMouseClickEvents(MouseEvent e, int tileID) {
+        private void determineMouseClickEvents(int x, int y, MouseEvent e) {
             if (SwingUtilities.isRightMouseButton(e)) {
-                removeAll();
-                if (!isClicked() && !gameOver) setFlagIcon();
+                endlessBoard.toggleFlag(x, y);
+                endlessView.repaintTile(x, y);
             } else if (SwingUtilities.isLeftMouseButton(e)) {
-                determineFirstClick(tileID);
+                EndlessDelta delta = endlessBoard.isRevealed(x, y) ? endlessBoard.chord(x, y)
+                        : endlessBoard.reveal(x, y);
+                endlessView.repaintChanges(delta);
+                refreshEndlessScore();
+                if (delta.isBombHit()) SwingUtilities.invokeLater(this::displayEndlessGameOver);
             }
         }
 
-        /*
-        The determineFirstClick method is very important. Because I chose to make it impossible to click a bomb on the
-        first click, so as not to be game over because of just bad luck, the abstraction of the game field is set only
-        after the first click. The first click of a player results in a call to the restartGame method of the GameField
-        class. This method takes the difficulty level and the clicked tile's ID as parameters. The game engine, the not
-        GUI part of the code, returns a GameField in which the clicked tile, and its adjacent tiles, cannot contain
-        a bomb.
-         */
-
-        private void determineFirstClick(int tileID) {
-            if (firstClick) {
-                firstClick = false;
-                gameField = GameField.restartGame(difficultyLevel, tileID);
-            }
-            if (!isClicked() && !gameOver) {
-                removeAll();
-                setClicked();
-                leftMouseClickEvents(tileID);
-            }
-        }
-
-        /*
-        The leftMouseClickEvents method determines if the player clicked on a bombTile or not, and calls the
-        corresponding methods.
-         */
-
-        private void leftMouseClickEvents(int tileID) {
-            if (gameField.getGameFieldTiles().get(tileID).isBomb()) {
-                setBombIcon();
-                gameOverSequence(tileID);
-
+        private void displayEndlessGameOver() {
+            int n = JOptionPane.showConfirmDialog(this,
+                    "You revealed " + endlessBoard.getNumberOfRevealedTiles() + " tiles.\n"
+                            + "Would you like to play again?",
+                    "Game over!",
+                    JOptionPane.YES_NO_OPTION,
+                    JOptionPane.QUESTION_MESSAGE,
+                    iconCache.getIcon("boom", DIALOG_ICON_SIZE));
+            if (n == 0) {
+                endlessBoard = new EndlessBoard(ThreadLocalRandom.current().nextLong());
+                startEndlessGame();
             } else {
-                setNumberOfBombsIcon(gameField, tileID);
-                determineVictory();
+                dispose();
             }
         }
 
-        /*
-        The setFlagIcon method is called when the player right clicks on a Tile. We could separate this method like
-        we did in the gameOverSequence method, but this method can not be called twice before first registering player
-        input, which is also slow. So the I/O- operation here will have no noticeable performance effects.
-         */
-
-        private void setFlagIcon() {
-            Image image = imageLoader("images/flag.png")
-                    .getScaledInstance(40, 40, Image.SCALE_SMOOTH);
-            JLabel jimage = new JLabel(new ImageIcon(image));
-            add(jimage);
-            validate();
+        private void refreshEndlessScore() {
+            endlessScoreLabel.setText("   Tiles revealed: " + endlessBoard.getNumberOfRevealedTiles()
+                    + "    Chunks in memory: " + endlessBoard.getNumberOfLoadedChunks()
+                    + " (" + endlessBoard.getNumberOfStoredChunks() + " stored)");
         }
+    }
 
-        /*
-        The setNumberOfBombsIcon method determines which number icon to display after left clicking on a tile.
-        It first calls on a function in the CreateGameFieldFunctions utility class to get the number of bombs in the
-        eight adjacent tiles. If there is at least one bomb in the adjacent tiles, it obtains an image through
-        an I/O operation were the url of the path is determined by the number of adjacent bombs.
-        It also changes the border from raised to lowered for visual effect.
-
-        If there are no bombs in the adjacent tiles, the method enters a recursive sequence. It will get a list
-        of adjacent tiles that have not yet been clicked, and the setNumberOfBombsIcon method invokes itself on those
-        tiles. This process repeats itself until an area is uncovered for which the border tiles all contain number
-        icons.
-         */
+    /*
+    The main component of the GUI is the playing field, which is represented by the BoardView class. It used to be a
+    TileContainer holding a JPanel for every tile, see the BoardView class for why it no longer is. The BoardView only
+    paints the game field, and tells the GameInterface which tile was clicked.
 
-        private void setNumberOfBombsIcon(GameField gamefield, int tileID) {
-            int numberOfAdjacentBombs = CreateGameFieldFunctions.getAdjacentBombs(gamefield, tileID);
-            if (numberOfAdjacentBombs > 0) {
-                addNumberIcon(numberOfAdjacentBombs);
-            } else {
-                setBorder(BorderFactory.createLoweredBevelBorder());
-                List<TileUserInterface> adjacentTiles = getUnclickedAdjacentTiles(gamefield, tileID);
+    The resetGame method starts a new game, and shows it in the BoardView. There is also an overloaded version of
+    resetGame which takes a BoardSpec as an argument. This makes it easier to implement an option with which a
+    player can choose the desired difficulty, or a custom board.
+     */
 
-                for (TileUserInterface tile : adjacentTiles) {
-                    tile.setNumberOfBombsIcon(gamefield, tile.tileID);
-                }
-            }
+    private void resetGame() {
+        if (gameOverReveal != null) {
+            gameOverReveal.stop();
+            gameOverReveal = null;
         }
+        startNewGameSession();
+        boardView.setBoardSpec(boardSpec);
+        resetScorePanel();
+    }
 
-        /*
-        The getUnclickedAdjacentTiles method generates a list of actual tiles, adjacent to the current tile, that have
-        not yet been clicked on. It first obtains an array of IDs of adjacent tiles. Then it loops through the array,
-        checking if the id is valid, if so the method checks if the corresponding tile is unclicked. If so, it adds
-        the tile to the list, and changes the status of that tile to clicked.
-
-        This last part is very important, if we don't change the clicked status, adjacent tiles with zero adjacent bombs
-        would keep adding each other to their list of adjacent tiles, resulting in an infinite number of recursive
-        calls in the setNumberOfBombsIcon method, ending in a StackOverflow error.
-         */
+    private void resetGame(BoardSpec boardSpec) {
+        createGameSettings(boardSpec);
+        resetGame();
+    }
 
-        private synchronized List<TileUserInterface> getUnclickedAdjacentTiles(GameField gamefield, int tileID) {
-            List<Integer> adjacentTileIDs = CreateGameFieldFunctions.
-                    getAdjacentTileIDs(gamefield.getDifficulty(), tileID);
-            int numTiles = gamefield.getDifficulty().getNumberOfTiles();
-            List<TileUserInterface> adjacentUnclickedTiles = new ArrayList<>();
-            for (int i : adjacentTileIDs) {
-                if (i >= 0 && i < numTiles) {
-                    TileUserInterface tile = gameFieldTiles.get(i);
-                    if (!tile.isClicked()) {
-                        tile.setClicked();
-                        adjacentUnclickedTiles.add(tile);
-                    }
-                }
-            }
-            return adjacentUnclickedTiles;
-        }
+    private void resetScorePanel() {
+        gameClock.reset();
+        scorePanel.refreshScoreLabels();
+    }
+
+    /*
+     The determineMouseClickEvents method determines if the user clicked right or left using static methods from
+     SwingUtilities. A right click places or removes a flag. A left click reveals the tile, or, when the tile was
+     already revealed, reveals its adjacent tiles if all bombs around it are flagged (this is called chording).
+     What actually happens is decided by the GameSession. The clicks are sent to the GameLoop that plays it, which
+     publishes the changes that have to be displayed in a GameSnapshot.
+
+     Because I chose to make it impossible to click a bomb on the first click, so as not to be game over because
+     of just bad luck, the abstraction of the game field is only created after the first click. The GameSession
+     takes care of that as well.
+     */
 
-        // The addNumberIcon method is identical to the addFlag method.
-        private void addNumberIcon(int numberOfAdjacentBombs) {
-            Image image = imageLoader("images/" + numberOfAdjacentBombs + ".png")
-                    .getScaledInstance(40, 40, Image.SCALE_SMOOTH);
-            JLabel jimage = new JLabel(new ImageIcon(image));
-            add(jimage);
-            setBorder(BorderFactory.createLoweredBevelBorder());
-            validate();
+    private void determineMouseClickEvents(int tileID, MouseEvent e) {
+        if (SwingUtilities.isRightMouseButton(e)) {
+            gameLoop.flag(tileID);
+        } else if (SwingUtilities.isLeftMouseButton(e)) {
+            gameLoop.open(tileID);
         }
+    }
 
-        /*
-        To determine if a player has successfully completed the game whe have to keep track of how many tiles the
-        player has clicked on (only left clicks increase the counter), and compare that to the number of tiles that are
-        not bombs. If the player successfully completed the game, the displayEndMessage method is called.
-         */
+    /*
+    The applySnapshot method displays the changes published by the GameLoop, on the event dispatch thread, and then
+    checks if the game is finished. Snapshots of a game that was replaced by a new one are ignored. The game clock
+    starts with the first revealed tile and stops when the game is finished. If the player revealed a bomb, the
+    gameOverSequence shows the other bombs. If the player revealed all tiles that are not bombs, the victory message is
+    shown. Clicks after the game is finished still result in snapshots, so that is only done for the snapshot in which
+    the game became finished.
+     */
 
-        private void determineVictory() {
-            int tilesToClick = NUMBER_OF_TILES - NUMBER_OF_BOMBS;
-            if (tilesToClick - totalClickedtiles == 0) {
-                setGameOver();
-                displayEnterHigScore();
-                displayEndMessage("images/victory.png",
-                        "Would you like to play again?",
-                        "Victorious");
-            }
+    private void applySnapshot(GameSnapshot snapshot) {
+        if (snapshot.getGameID() != gameID) return;
+        boolean wasFinished = gameState.isFinished();
+        gameState = snapshot.getState();
+        boardView.applySnapshot(snapshot);
+        remainingTiles = snapshot.getRemainingTiles();
+        if (gameState == GameState.PLAYING) gameClock.start();
+        else if (gameState.isFinished()) gameClock.stop();
+        scorePanel.refreshScoreLabels();
+        if (wasFinished) return;
+        if (gameState == GameState.LOST) {
+            gameOverSequence();
+        } else if (gameState == GameState.WON) {
+            displayVictory();
         }
+    }
 
-        /*
-        The displayEnterHighScore method first determines if the score is good enough to be added to the list of
-        HighScores. If true, it creates a JDialog asking the player to enter his/ her name. If a name is entered,
-        a new HighScore is added to the list.
-         */
-        private void displayEnterHigScore() {
-            boolean isHighScore = highscores.determineIfHighScore(difficultyLevel, scorePanel.calculateTimeElapsed());
-            if (isHighScore) {
-                String playerName = (String) JOptionPane.showInputDialog(
-                        gameFieldUserInterface,
-                        "       You got a new highscore!\n"
-                                + "        please enter your name: ",
-                        "New HighScore!",
-                        JOptionPane.PLAIN_MESSAGE,
-                        null,
-                        null,
-                        null);
-
-                if ((playerName != null) && (playerName.length() > 0)) {
-                    highscores.addHighScore(difficultyLevel, timeElapsed, playerName);
-                }
+    /*
+    The GameSession determines if the player has successfully completed the game, by comparing the number of
+    revealed tiles to the number of tiles that are not bombs. If so, the displayVictory method is called. High scores
+    are only kept for the difficulty levels, not for custom boards.
+     */
+
+    private void displayVictory() {
+        if (boardSpec.isPreset()) displayEnterHigScore();
+        displayEndMessage(iconCache.getIcon("victory", DIALOG_ICON_SIZE),
+                "Would you like to play again?",
+                "Victorious");
+    }
+
+    /*
+    The displayEnterHighScore method first determines if the score is good enough to be added to the list of
+    HighScores. If true, it creates a JDialog telling the player which place the score got, and asking the player to
+    enter his/ her name. If a name is entered, a new HighScore is added to the list.
+     */
+    private void displayEnterHigScore() {
+        DifficultyLevel difficultyLevel = boardSpec.getDifficultyLevel();
+        long timeElapsedInMillis = gameClock.getElapsedMillis();
+        boolean isHighScore = highscores.determineIfHighScore(difficultyLevel, timeElapsedInMillis);
+        if (isHighScore) {
+            int rank = highscores.getRank(difficultyLevel, timeElapsedInMillis);
+            String playerName = (String) JOptionPane.showInputDialog(
+                    gameFieldUserInterface,
+                    "       You got a new highscore!\n"
+                            + "        You placed #" + rank + ", please enter your name: ",
+                    "New HighScore!",
+                    JOptionPane.PLAIN_MESSAGE,
+                    null,
+                    null,
+                    null);
+
+            if ((playerName != null) && (playerName.length() > 0)) {
+                highscores.addHighScore(difficultyLevel, timeElapsedInMillis, playerName);
             }
         }
+    }
 
-        /*
-        The gameOverSequence method is called when the player clicks a bomb. It goes through all the tiles on the
-        gameField and prints a bomb icon on the Tiles containing a bomb. This is a CPU heavy process. I tested the
-        stream method against;
-
-                        for (TileUserInterface tile : gameFieldTiles) {
-                        int id = tile.getTileID();
-                        if (clickedTileID != id && gameField.getGameFieldTiles().get(id).isBomb()) {
-                            tile.setBombIcon();
-                        }
-
-         The stream was the clear winner. A new Thread is called, so the main Thread can maintain game-control.
-         The Thread.sleep is just for the visual effect.
-         */
+    /*
+    The gameOverSequence method is called when the player clicks a bomb. It shows the other bombs on the game field by
+    telling the BoardView to show the bombs below a growing tileID. This used to be done by a new Thread, which slept
+    10 milliseconds for every bomb and handed every single bomb to the event dispatch thread, while a second Thread
+    showed the end message, so the dialog raced the bombs and a new game could be started while the old Thread was still
+    showing bombs on it. On a large board with thousands of bombs the sequence took minutes.
+
+    Now the bombs are shown by a GameOverReveal, which runs on the event dispatch thread with a javax.swing.Timer, like
+    the GameClock. Every frame shows the bombs in the next part of the board in one batch, so the whole board is shown
+    in GAME_OVER_FRAMES frames with one repaint each, however large it is. Without the animation, all bombs are shown in
+    a single step, which costs one repaint. The end message is shown when the bombs are, on the event dispatch thread.
+     */
 
-        private void gameOverSequence(int clickedTileID) {
-            Thread t = new Thread(new Runnable() {
-                @Override
-                public void run() {
-
-                    gameFieldTiles.stream()
-                            .filter(t -> gameField.getGameFieldTiles().get(t.getTileID()).isBomb())
-                            .filter(t -> t.getTileID() != clickedTileID)
-                            .forEach((t) -> {
-                                t.removeAll();
-                                t.setBombIcon();
-                                try {
-                                    Thread.sleep(10);
-                                } catch (InterruptedException e) {
-                                    e.printStackTrace();
-                                }
-                            });
-                }
-            });
-            new Thread(() -> displayEndMessage("images/boom.png",
-                    "Would you like to play again?",
-                    "Game over!")).start();
-            t.start();
-            setGameOver();
+    private void gameOverSequence() {
+        ImageIcon gameOverIcon = iconCache.getIcon("boom", DIALOG_ICON_SIZE);
+        Runnable showEndMessage = () -> displayEndMessage(gameOverIcon,
+                "Would you like to play again?",
+                "Game over!");
+        if (animateGameOver) {
+            gameOverReveal = new GameOverReveal(showEndMessage);
+            gameOverReveal.start();
+        } else {
+            boardView.showBombsBelow(NUMBER_OF_TILES);
+            SwingUtilities.invokeLater(showEndMessage);
         }
+    }
 
-        /*
-        The displayEndMessage method first creates an icon based on the url of the path provided.
-        It then creates a Yes/ No question dialog. The message displayed and the title of the dialog can be provided as
-        parameters when calling this method.
-         */
+    /*
+    The GameOverReveal shows the bombs in GAME_OVER_FRAMES steps of the same number of tiles, one step every
+    GAME_OVER_FRAME_INTERVAL milliseconds, and then runs the end message. It is stopped when a new game starts before
+    it is done, so it never shows bombs of the old game on the new one.
+     */
 
-        private void displayEndMessage(String url, String message, String title) {
-            Image image = imageLoader(url)
-                    .getScaledInstance(40, 40, Image.SCALE_SMOOTH);
-            ImageIcon gameOverIcon = new ImageIcon(image);
-            int n = JOptionPane.showConfirmDialog(gameFieldUserInterface,
-                    message,
-                    title,
-                    JOptionPane.YES_NO_OPTION,
-                    JOptionPane.QUESTION_MESSAGE,
-                    gameOverIcon);
-            if (n == 0) {
-                container.resetGame();
-            } else if (n == 1) {
-                System.exit(0);
-            }
+    private class GameOverReveal implements ActionListener {
+        private final Timer timer = new Timer(GAME_OVER_FRAME_INTERVAL, this);
+        private final int tilesPerFrame = Math.max(1, (NUMBER_OF_TILES + GAME_OVER_FRAMES - 1) / GAME_OVER_FRAMES);
+        private final Runnable onFinished;
+        private int bombsShownBelow;
+
+        private GameOverReveal(Runnable onFinished) {
+            this.onFinished = onFinished;
+            timer.setCoalesce(true);
         }
 
-        private void setBombIcon() {
-            setClicked();
-            add(bombImage);
-            setBorder(BorderFactory.createLoweredBevelBorder());
-            validate();
+        private void start() {
+            timer.start();
         }
 
-        private int getTileID() {
-            return tileID;
+        private void stop() {
+            timer.stop();
         }
 
-        private boolean isClicked() {
-            return isClicked;
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            bombsShownBelow = Math.min(NUMBER_OF_TILES, bombsShownBelow + tilesPerFrame);
+            boardView.showBombsBelow(bombsShownBelow);
+            if (bombsShownBelow == NUMBER_OF_TILES) {
+                timer.stop();
+                gameOverReveal = null;
+                onFinished.run();
+            }
         }
+    }
+
+    /*
+    The displayEndMessage method creates a Yes/ No question dialog. The icon, the message displayed and the title
+    of the dialog can be provided as parameters when calling this method.
+     */
 
-        void setClicked() {
-            isClicked = true;
-            totalClickedtiles++;
+    private void displayEndMessage(ImageIcon icon, String message, String title) {
+        int n = JOptionPane.showConfirmDialog(gameFieldUserInterface,
+                message,
+                title,
+                JOptionPane.YES_NO_OPTION,
+                JOptionPane.QUESTION_MESSAGE,
+                icon);
+        if (n == 0) {
+            resetGame();
+        } else if (n == 1) {
+            System.exit(0);
         }
     }
 
     /*
-    The displayScorePanel is a JPanel that holds another JPanel which displays the number of tiles the player still
-    has to click on to win the game.
+    The displayScorePanel is a JPanel that displays the number of tiles the player still has to click on to win the
+    game, and the time elapsed according to the game clock. The labels are created once, and only get a new text when
+    something changed, see GameClock for how the time is kept up to date.
      */
 
     private class displayScorePanel extends JPanel {
-        LocalTime startingTime;
+        private final JLabel tilesLeftLabel = new JLabel();
+        private final JLabel timeElapsedLabel = new JLabel();
 
         displayScorePanel() {
             super(new BorderLayout());
             setPreferredSize(new Dimension(200, 25));
-            displayScore();
+            add(tilesLeftLabel, BorderLayout.WEST);
+            add(timeElapsedLabel, BorderLayout.EAST);
+            refreshScoreLabels();
         }
 
         /*
-        In order to keep track of the time that has elapsed since the start of the game, the DisplayScore method runs
-        in a separate thread, and refreshes the ScoreLabel with every pass through the do/ while loop. In order to save
-        stack space, the thread sleeps for 1 second on every run through the loop.
+        The refreshScoreLabels method is called on every tick of the game clock while a game is running, and after
+        every click. While the clock runs, whole seconds are shown, once it has stopped the exact time is shown.
          */
-        private void displayScore() {
-            startingTime = LocalTime.now();
-            Thread t = new Thread(() -> {
-                do {
-                    refreshScoreLabels();
-                    try {
-                        Thread.sleep(1000);
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    }
-                } while (!gameOver);
-            });
-            t.start();
-        }
-
         private void refreshScoreLabels() {
-            int tilesLeft = NUMBER_OF_TILES - NUMBER_OF_BOMBS - totalClickedtiles;
-            removeAll();
-            add(new JLabel("   Tiles left: " + tilesLeft), BorderLayout.WEST);
-            add(new JLabel("Time elapsed: " + formatTimeElapsed(calculateTimeElapsed()) + "  "), BorderLayout.EAST);
-            validate();
-        }
-
-        private long calculateTimeElapsed() {
-            LocalTime currentTime = LocalTime.now();
-            timeElapsed = Duration.between(startingTime, currentTime).getSeconds();
-            return timeElapsed;
+            tilesLeftLabel.setText("   Tiles left: " + remainingTiles);
+            boolean showMillis = !gameClock.isRunning() && gameClock.getElapsedMillis() > 0;
+            timeElapsedLabel.setText("Time elapsed: " + formatTimeElapsed(gameClock.getElapsedMillis(), showMillis)
+                    + "  ");
         }
 
         /*
         The formatTimeElapsed method formats the time elapsed into a more aesthetically pleasing String format.
-        It distinguishes between times over or under 1 hour.
+        It distinguishes between times over or under 1 hour, and can add the milliseconds.
          */
-        private String formatTimeElapsed(long secondsElapsed) {
+        private String formatTimeElapsed(long millisElapsed, boolean showMillis) {
+            long secondsElapsed = millisElapsed / 1000;
+            String formatted;
             if (secondsElapsed >= 3600) {
-                return String.format("%d:%02d:%02d", secondsElapsed / 3600,
+                formatted = String.format("%d:%02d:%02d", secondsElapsed / 3600,
                         (secondsElapsed % 3600) / 60, (secondsElapsed % 60));
             } else {
-                return String.format("%02d:%02d", (secondsElapsed % 3600) / 60, (secondsElapsed % 60));
+                formatted = String.format("%02d:%02d", (secondsElapsed % 3600) / 60, (secondsElapsed % 60));
             }
+            return showMillis ? formatted + String.format(".%03d", millisElapsed % 1000) : formatted;
         }
     }
 }
@@ -0,0 +1,139 @@
+package com.minesweeper.UserInterface;
+
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+The IconCache class holds every image of the game, decoded and scaled to the size it is shown at. Previously every
+flag, number and end of game dialog read its PNG from the classpath with ImageIO.read, and then scaled it down with
+getScaledInstance(40, 40, Image.SCALE_SMOOTH), on every click. A large cascade of revealed tiles could decode the
+number images thousands of times, while the images only ever change when the window changes size.
+
+Each image is now decoded only once. The original images are large, up to 2357 pixels wide, so right after decoding
+they are scaled down to a master copy of at most MASTER_SIZE pixels, which is all the quality a tile will ever need.
+From the master copies, the tile icons are scaled to the current tile size. When the tile size changes, because the
+window was resized or the difficulty changed, setTileSize scales the masters again into the same ImageIcon objects,
+so anything that shows one of those icons picks up the new size on its next repaint. Revealing tiles never does any
+I/O or image work at all.
+
+Scaling is done by drawing onto a BufferedImage with bilinear interpolation, halving the size in steps. Drawing in a
+single step from a large image to a small one skips most of the pixels of the original and looks grainy, halving until
+the target size is reached gives about the same quality as SCALE_SMOOTH, at a fraction of the cost.
+
+The IconCache is only used on the event dispatch thread, so it doesn't need to be thread safe.
+ */
+
+public class IconCache {
+
+    private static final int MASTER_SIZE = 256;
+
+    private final Map<String, BufferedImage> masters = new HashMap<>();
+    private final Map<String, ImageIcon> tileIcons = new HashMap<>();
+    private final Map<String, ImageIcon> fixedSizeIcons = new HashMap<>();
+    private int tileSize;
+
+    public IconCache(int tileSize) {
+        this.tileSize = Math.max(1, tileSize);
+    }
+
+    /*
+    The getTileIcon method returns the icon of the given image, for example "flag" or "3", scaled to the current tile
+    size. The same ImageIcon object is returned every time, also after the tile size changed.
+     */
+    public ImageIcon getTileIcon(String imageName) {
+        ImageIcon icon = tileIcons.get(imageName);
+        if (icon == null) {
+            icon = new ImageIcon(scale(getMaster(imageName), tileSize));
+            tileIcons.put(imageName, icon);
+        }
+        return icon;
+    }
+
+    // The getIcon method returns an icon of a fixed size, which does not follow the tile size, for example for dialogs.
+    public ImageIcon getIcon(String imageName, int size) {
+        String key = imageName + "@" + size;
+        ImageIcon icon = fixedSizeIcons.get(key);
+        if (icon == null) {
+            icon = new ImageIcon(scale(getMaster(imageName), size));
+            fixedSizeIcons.put(key, icon);
+        }
+        return icon;
+    }
+
+    public BufferedImage getImage(String imageName) {
+        return getMaster(imageName);
+    }
+
+    /*
+    The setTileSize method rescales all tile icons when the tile size has changed, and returns whether it did. Nothing
+    happens when the size is the same, so it can safely be called on every resize event.
+     */
+    public boolean setTileSize(int tileSize) {
+        tileSize = Math.max(1, tileSize);
+        if (tileSize == this.tileSize) return false;
+        this.tileSize = tileSize;
+        for (Map.Entry<String, ImageIcon> tileIcon : tileIcons.entrySet()) {
+            tileIcon.getValue().setImage(scale(getMaster(tileIcon.getKey()), tileSize));
+        }
+        return true;
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    private BufferedImage getMaster(String imageName) {
+        BufferedImage master = masters.get(imageName);
+        if (master == null) {
+            master = scale(readImage("images/" + imageName + ".png"), MASTER_SIZE);
+            masters.put(imageName, master);
+        }
+        return master;
+    }
+
+    /*
+    The scale method scales the image to a square of the given size. Like getScaledInstance did before, it doesn't keep
+    the aspect ratio, all the images of the game are (almost) square. While the image is more than twice as large as
+    the target, it is halved, and the last step scales it to the exact size.
+     */
+    private static BufferedImage scale(BufferedImage image, int size) {
+        BufferedImage scaled = image;
+        int width = image.getWidth();
+        int height = image.getHeight();
+        do {
+            width = width / 2 >= size ? width / 2 : size;
+            height = height / 2 >= size ? height / 2 : size;
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D graphics = step.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(scaled, 0, 0, width, height, null);
+            graphics.dispose();
+            scaled = step;
+        } while (width != size || height != size);
+        return scaled;
+    }
+
+    /*
+    The readImage method finds the image through the context ClassLoader, like the imageLoader method of the
+    GameInterface used to, so the images are also found when the game runs from a single jar. A missing image is a
+    packaging error, so it is thrown instead of printed.
+     */
+    private static BufferedImage readImage(String pathAndFileName) {
+        URL url = Thread.currentThread().getContextClassLoader().getResource(pathAndFileName);
+        if (url == null) throw new IllegalStateException("Image not found on the classpath: " + pathAndFileName);
+        try {
+            return ImageIO.read(url);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read image " + pathAndFileName, e);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.minesweeper.UserInterface;
+
+import javax.swing.BorderFactory;
+import javax.swing.JComponent;
+import javax.swing.border.Border;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+
+/*
+The SpriteAtlas class holds the sprites of the tiles, drawn once at a single tile size, next to each other in one
+image. Every tile looks like one of the sprites: a hidden tile, a flag, an empty tile, a bomb, or one of the numbers 1
+to 8. It used to be part of the BoardView, it is a class of its own since the EndlessView paints the same tiles.
+ */
+
+final class SpriteAtlas {
+
+    static final int HIDDEN = 0;
+    static final int FLAG = 1;
+    static final int EMPTY = 2;
+    static final int BOMB = 3;
+    // the sprite of number n is NUMBER_OFFSET + n, so the numbers 1 to 8 follow the bomb
+    static final int NUMBER_OFFSET = 3;
+
+    private static final int NUMBER_OF_SPRITES = 12;
+    private static final int ICON_INSET = 2;
+    private static final Border HIDDEN_BORDER = BorderFactory.createRaisedBevelBorder();
+    private static final Border REVEALED_BORDER = BorderFactory.createLoweredBevelBorder();
+
+    private final BufferedImage atlas;
+    private final int tileSize;
+
+    /*
+    A hidden tile and a flag have a raised border, all others have a lowered border, just like the JPanels of the
+    TileContainer had. The icons come from the IconCache, scaled to fit inside the border. Every pixel of the atlas is
+    painted, so it doesn't need an alpha channel, which makes copying a sprite a plain copy of pixels.
+     */
+    SpriteAtlas(JComponent component, IconCache iconCache, int tileSize) {
+        this.tileSize = tileSize;
+        this.atlas = new BufferedImage(NUMBER_OF_SPRITES * tileSize, tileSize, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = atlas.createGraphics();
+        iconCache.setTileSize(Math.max(1, tileSize - 2 * ICON_INSET));
+        for (int sprite = 0; sprite < NUMBER_OF_SPRITES; sprite++) {
+            int x = sprite * tileSize;
+            graphics.setColor(component.getBackground());
+            graphics.fillRect(x, 0, tileSize, tileSize);
+            Border border = sprite == HIDDEN || sprite == FLAG ? HIDDEN_BORDER : REVEALED_BORDER;
+            border.paintBorder(component, graphics, x, 0, tileSize, tileSize);
+            String imageName = getImageName(sprite);
+            if (imageName != null) {
+                Image icon = iconCache.getTileIcon(imageName).getImage();
+                graphics.drawImage(icon, x + ICON_INSET, ICON_INSET, null);
+            }
+        }
+        graphics.dispose();
+    }
+
+    // getRevealedSprite returns the sprite of a revealed tile
+    static int getRevealedSprite(boolean isBomb, int numberOfAdjacentBombs) {
+        if (isBomb) return BOMB;
+        return numberOfAdjacentBombs == 0 ? EMPTY : NUMBER_OFFSET + numberOfAdjacentBombs;
+    }
+
+    int getTileSize() {
+        return tileSize;
+    }
+
+    // paintSprite copies a sprite from the atlas to the tile with its top left corner at x, y
+    void paintSprite(Graphics g, int sprite, int x, int y) {
+        int spriteX = sprite * tileSize;
+        g.drawImage(atlas, x, y, x + tileSize, y + tileSize, spriteX, 0, spriteX + tileSize, tileSize, null);
+    }
+
+    private static String getImageName(int sprite) {
+        if (sprite == FLAG) return "flag";
+        if (sprite == BOMB) return "bomb";
+        if (sprite > NUMBER_OFFSET) return String.valueOf(sprite - NUMBER_OFFSET);
+        return null;
+    }
+}
@@ -0,0 +1,160 @@
+package com.minesweeper.gamefield;
+
+/*
+The BitBoard class is the compact core of a game field. Originally a game field was a List of BombTile and NormalTile
+objects, which meant one object on the heap for every tile, plus a reference in the list pointing to it. On large
+boards those objects took up most of the memory, and every check had to follow a reference to find out if a tile was a
+bomb.
+
+The BitBoard stores the bomb, revealed and flagged state of every tile as a single bit in an array of longs. A long
+holds 64 bits, so the state of tile n is found in word n / 64 at bit position n % 64. Because 64 is a power of two,
+the word is found with a shift (n >>> 6), and the bit with 1L << n, because Java only uses the lowest 6 bits of the
+shift distance when shifting a long.
+The number of adjacent bombs never exceeds 8, so it fits in a byte. Together with a bit marking the tiles without
+adjacent bombs, this takes about 12 bits per tile.
+ */
+
+public class BitBoard implements Board {
+
+    private final int tilesPerRow;
+    private final int numberOfRows;
+    private final int numberOfTiles;
+    private final long[] bombs;
+    private final long[] revealed;
+    private final long[] flagged;
+    private final long[] empty;
+    private final byte[] adjacentBombs;
+    private int numberOfBombs;
+    private int numberOfRevealedTiles;
+    private int numberOfFlags;
+
+    BitBoard(int tilesPerRow, int numberOfRows) {
+        this.tilesPerRow = tilesPerRow;
+        this.numberOfRows = numberOfRows;
+        this.numberOfTiles = tilesPerRow * numberOfRows;
+        int words = wordsFor(numberOfTiles);
+        this.bombs = new long[words];
+        this.revealed = new long[words];
+        this.flagged = new long[words];
+        this.empty = new long[words];
+        this.adjacentBombs = new byte[numberOfTiles];
+    }
+
+    static int wordsFor(int numberOfTiles) {
+        return (numberOfTiles + 63) >>> 6;
+    }
+
+    /*
+    The setBomb method is only used while the board is being created. Once the adjacent bomb counts are calculated
+    the bombs on the board must not change anymore.
+     */
+    void setBomb(int tileID) {
+        if (!isBomb(tileID)) {
+            bombs[tileID >>> 6] |= 1L << tileID;
+            numberOfBombs++;
+        }
+    }
+
+    void setAdjacentBombs(int tileID, int adjacentBombCount) {
+        adjacentBombs[tileID] = (byte) adjacentBombCount;
+    }
+
+    long[] getBombWords() {
+        return bombs;
+    }
+
+    /*
+    The empty bitset marks the tiles that are not a bomb and have no adjacent bombs. It is filled together with the
+    adjacent bomb counts, and used by the RevealEngine to find the areas that open up at once. The RevealEngine also
+    works directly on the revealed and flagged words, and reports how many tiles it revealed through addRevealedTiles.
+     */
+    void setEmptyWord(int word, long emptyTiles) {
+        empty[word] = emptyTiles;
+    }
+
+    long[] getEmptyWords() {
+        return empty;
+    }
+
+    long[] getRevealedWords() {
+        return revealed;
+    }
+
+    long[] getFlaggedWords() {
+        return flagged;
+    }
+
+    void addRevealedTiles(int numberOfTiles) {
+        numberOfRevealedTiles += numberOfTiles;
+    }
+
+    /*
+    The reveal method marks a tile as revealed. It returns false if the tile was already revealed, which lets callers
+    find out if a tile is new without having to query it first.
+     */
+    public boolean reveal(int tileID) {
+        long mask = 1L << tileID;
+        int word = tileID >>> 6;
+        if ((revealed[word] & mask) != 0) return false;
+        revealed[word] |= mask;
+        numberOfRevealedTiles++;
+        return true;
+    }
+
+    public boolean toggleFlag(int tileID) {
+        long mask = 1L << tileID;
+        int word = tileID >>> 6;
+        flagged[word] ^= mask;
+        boolean isFlagged = (flagged[word] & mask) != 0;
+        numberOfFlags += isFlagged ? 1 : -1;
+        return isFlagged;
+    }
+
+    @Override
+    public int getNumberOfTiles() {
+        return numberOfTiles;
+    }
+
+    @Override
+    public int getNumberOfBombs() {
+        return numberOfBombs;
+    }
+
+    @Override
+    public int getTilesPerRow() {
+        return tilesPerRow;
+    }
+
+    @Override
+    public int getNumberOfRows() {
+        return numberOfRows;
+    }
+
+    @Override
+    public boolean isBomb(int tileID) {
+        return (bombs[tileID >>> 6] & (1L << tileID)) != 0;
+    }
+
+    @Override
+    public boolean isRevealed(int tileID) {
+        return (revealed[tileID >>> 6] & (1L << tileID)) != 0;
+    }
+
+    @Override
+    public boolean isFlagged(int tileID) {
+        return (flagged[tileID >>> 6] & (1L << tileID)) != 0;
+    }
+
+    @Override
+    public int getAdjacentBombs(int tileID) {
+        return adjacentBombs[tileID];
+    }
+
+    public int getNumberOfRevealedTiles() {
+        return numberOfRevealedTiles;
+    }
+
+    public int getNumberOfFlags() {
+        return numberOfFlags;
+    }
+}
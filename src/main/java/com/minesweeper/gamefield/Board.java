@@ -0,0 +1,26 @@
+package com.minesweeper.gamefield;
+
+/*
+The Board interface describes the queries the game engine and the user interface can perform on a game field. All the
+queries take a tileID and return primitive values, so asking something about a tile never requires a Tile object to be
+created. The tileIDs run row by row from the top left corner, exactly like the IDs of the TileUserInterface components.
+ */
+
+public interface Board {
+
+    int getNumberOfTiles();
+
+    int getNumberOfBombs();
+
+    int getTilesPerRow();
+
+    int getNumberOfRows();
+
+    boolean isBomb(int tileID);
+
+    boolean isRevealed(int tileID);
+
+    boolean isFlagged(int tileID);
+
+    int getAdjacentBombs(int tileID);
+}
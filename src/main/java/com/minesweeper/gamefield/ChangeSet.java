@@ -0,0 +1,58 @@
+package com.minesweeper.gamefield;
+
+import com.minesweeper.GameUtils.GameState;
+
+import java.util.Arrays;
+
+/*
+The ChangeSet class holds everything that changed because of a single action in a GameSession: the IDs of the newly
+revealed tiles, the tile of which the flag was placed or removed, and the state of the game after the action. A view
+only has to update the tiles in the change set, instead of looking at the whole game field.
+ */
+
+public class ChangeSet {
+
+    public static final int NO_TILE = -1;
+
+    private final int[] revealedTileIDs;
+    private final int size;
+    private final int toggledFlagTileID;
+    private final GameState state;
+
+    ChangeSet(int[] revealedTileIDs, int size, int toggledFlagTileID, GameState state) {
+        this.revealedTileIDs = revealedTileIDs;
+        this.size = size;
+        this.toggledFlagTileID = toggledFlagTileID;
+        this.state = state;
+    }
+
+    static ChangeSet unchanged(GameState state) {
+        return new ChangeSet(new int[0], 0, NO_TILE, state);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0 && toggledFlagTileID == NO_TILE;
+    }
+
+    public int getTileID(int index) {
+        if (index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        return revealedTileIDs[index];
+    }
+
+    public int[] getRevealedTileIDs() {
+        return Arrays.copyOf(revealedTileIDs, size);
+    }
+
+    // getToggledFlagTileID returns the tile of which the flag changed, or NO_TILE if no flag changed
+    public int getToggledFlagTileID() {
+        return toggledFlagTileID;
+    }
+
+    public GameState getState() {
+        return state;
+    }
+}
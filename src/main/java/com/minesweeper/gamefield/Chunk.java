@@ -0,0 +1,163 @@
+package com.minesweeper.gamefield;
+
+/*
+The Chunk class is a square of SIZE by SIZE tiles of an EndlessBoard. A chunk is 64 tiles wide, so every row of a
+chunk fits in exactly one long: the bombs, revealed and flagged state of row r are bit c of word r of their bitset,
+where c is the column within the chunk.
+
+The bombs of a chunk are generated as soon as the chunk is created. The number of adjacent bombs is only calculated
+when it is first needed, because the tiles on the edges have neighbours in the surrounding chunks, and those have to
+be generated first. The counts are stored as four bit planes, like the ones, twos, fours and eights words of the bit
+sliced adder in CreateGameFieldFunctions. That takes 4 bits per tile instead of the byte a BitBoard uses.
+
+When a chunk is evicted from memory, everything except the revealed and flagged state can be generated again from the
+seed, so only that state is kept, in the compact form returned by compact. See the EndlessBoard class.
+ */
+
+final class Chunk {
+
+    static final int SIZE = 64;
+    static final int NUMBER_OF_TILES = SIZE * SIZE;
+    // the bombs, revealed, flagged and 4 count bitsets of SIZE longs, plus the array and object headers
+    static final long APPROXIMATE_SIZE_IN_BYTES = 7 * SIZE * Long.BYTES + 256;
+
+    private static final int HEADER_WORDS = 3;
+
+    private final long[] bombs;
+    private final long[] revealed = new long[SIZE];
+    private final long[] flagged = new long[SIZE];
+    private long[][] counts;
+    private int numberOfRevealedTiles;
+    private int numberOfFlags;
+
+    Chunk(long[] bombs) {
+        this.bombs = bombs;
+    }
+
+    long getBombRow(int row) {
+        return bombs[row];
+    }
+
+    boolean isBomb(int column, int row) {
+        return (bombs[row] & (1L << column)) != 0;
+    }
+
+    boolean isRevealed(int column, int row) {
+        return (revealed[row] & (1L << column)) != 0;
+    }
+
+    boolean isFlagged(int column, int row) {
+        return (flagged[row] & (1L << column)) != 0;
+    }
+
+    /*
+    The reveal method reveals a tile, unless it is already revealed or flagged. It returns whether the tile was
+    revealed, so the EndlessBoard knows which tiles are new.
+     */
+    boolean reveal(int column, int row) {
+        long mask = 1L << column;
+        if (((revealed[row] | flagged[row]) & mask) != 0) return false;
+        revealed[row] |= mask;
+        numberOfRevealedTiles++;
+        return true;
+    }
+
+    boolean toggleFlag(int column, int row) {
+        long mask = 1L << column;
+        flagged[row] ^= mask;
+        boolean isFlagged = (flagged[row] & mask) != 0;
+        numberOfFlags += isFlagged ? 1 : -1;
+        return isFlagged;
+    }
+
+    boolean isCounted() {
+        return counts != null;
+    }
+
+    // setCounts stores the ones, twos, fours and eights bit planes of the adjacent bomb counts
+    void setCounts(long[][] counts) {
+        this.counts = counts;
+    }
+
+    int getAdjacentBombs(int column, int row) {
+        return (int) (counts[0][row] >>> column & 1) | (int) (counts[1][row] >>> column & 1) << 1
+                | (int) (counts[2][row] >>> column & 1) << 2 | (int) (counts[3][row] >>> column & 1) << 3;
+    }
+
+    // isEmpty returns whether the tile is not a bomb and has no adjacent bombs, the chunk must be counted
+    boolean isEmpty(int column, int row) {
+        long tilesWithAdjacentBombs = counts[0][row] | counts[1][row] | counts[2][row] | counts[3][row];
+        return ((tilesWithAdjacentBombs | bombs[row]) & (1L << column)) == 0;
+    }
+
+    // isTouched returns whether the player revealed or flagged anything in this chunk
+    boolean isTouched() {
+        return numberOfRevealedTiles != 0 || numberOfFlags != 0;
+    }
+
+    int getNumberOfRevealedTiles() {
+        return numberOfRevealedTiles;
+    }
+
+    int getNumberOfFlags() {
+        return numberOfFlags;
+    }
+
+    /*
+    The compact method returns the state of the player in this chunk in as few longs as possible. Instead of the
+    revealed tiles, it stores the tiles that are safe but still hidden, because that is what becomes zero when a chunk
+    is finished. It also stores the flags, and the revealed bombs, which is at most the one bomb that ended the game.
+    Only the rows that are not zero are stored: the first three words are masks telling which rows of each bitset
+    follow. A finished chunk without flags therefore takes just those three words, and a chunk with a few tiles
+    revealed along its edge not much more.
+     */
+    long[] compact() {
+        long hiddenMask = 0, flaggedMask = 0, revealedBombsMask = 0;
+        for (int row = 0; row < SIZE; row++) {
+            if ((~bombs[row] & ~revealed[row]) != 0) hiddenMask |= 1L << row;
+            if (flagged[row] != 0) flaggedMask |= 1L << row;
+            if ((bombs[row] & revealed[row]) != 0) revealedBombsMask |= 1L << row;
+        }
+        long[] state = new long[HEADER_WORDS + Long.bitCount(hiddenMask) + Long.bitCount(flaggedMask)
+                + Long.bitCount(revealedBombsMask)];
+        state[0] = hiddenMask;
+        state[1] = flaggedMask;
+        state[2] = revealedBombsMask;
+        int index = HEADER_WORDS;
+        for (long rows = hiddenMask; rows != 0; rows &= rows - 1) {
+            int row = Long.numberOfTrailingZeros(rows);
+            state[index++] = ~bombs[row] & ~revealed[row];
+        }
+        for (long rows = flaggedMask; rows != 0; rows &= rows - 1) {
+            state[index++] = flagged[Long.numberOfTrailingZeros(rows)];
+        }
+        for (long rows = revealedBombsMask; rows != 0; rows &= rows - 1) {
+            int row = Long.numberOfTrailingZeros(rows);
+            state[index++] = bombs[row] & revealed[row];
+        }
+        return state;
+    }
+
+    // The restore method brings back the state returned by compact, on a chunk generated from the same seed.
+    void restore(long[] state) {
+        int index = HEADER_WORDS;
+        long[] hidden = new long[SIZE];
+        for (long rows = state[0]; rows != 0; rows &= rows - 1) {
+            hidden[Long.numberOfTrailingZeros(rows)] = state[index++];
+        }
+        for (long rows = state[1]; rows != 0; rows &= rows - 1) {
+            flagged[Long.numberOfTrailingZeros(rows)] = state[index++];
+        }
+        long[] revealedBombs = new long[SIZE];
+        for (long rows = state[2]; rows != 0; rows &= rows - 1) {
+            revealedBombs[Long.numberOfTrailingZeros(rows)] = state[index++];
+        }
+        numberOfRevealedTiles = 0;
+        numberOfFlags = 0;
+        for (int row = 0; row < SIZE; row++) {
+            revealed[row] = (~bombs[row] & ~hidden[row]) | revealedBombs[row];
+            numberOfRevealedTiles += Long.bitCount(revealed[row]);
+            numberOfFlags += Long.bitCount(flagged[row]);
+        }
+    }
+}
@@ -1,11 +1,11 @@
 package com.minesweeper.gamefield;
 
+import com.minesweeper.GameUtils.BoardSpec;
 import com.minesweeper.GameUtils.DifficultyLevel;
-import com.minesweeper.Tile.BombTile;
-import com.minesweeper.Tile.NormalTile;
-import com.minesweeper.Tile.Tile;
 
-import java.util.*;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
 
 public class CreateGameFieldFunctions {
 
@@ -14,121 +14,238 @@ public class CreateGameFieldFunctions {
     }
 
     /*
-    The createGameTiles method generates a list of Tiles representing an abstraction of the actual game field.
-    Dependent on the difficulty level, it first obtains a set of integers from the randomBombIDGenerator.
-    It then determines the total number of tiles to be added, and adds that number of tiles to a new list.
-    If the index where a tile will be added corresponds to an index in the set of bombIDs, at that index a new
-    BombTile will be added.
+    The createGameTiles method generates the BitBoard representing an abstraction of the actual game field.
+    Dependent on the BoardSpec, it first places the bombs on the board, keeping the clicked tile and its adjacent
+    tiles free. The random numbers come from the given RandomStrategy, so a strategy created from the same seed always
+    results in the same board. Because the bombs never change after this point, the number of adjacent bombs of every
+    tile is calculated here once, instead of every time a tile is revealed.
      */
 
-    static List<Tile> createGameTiles(DifficultyLevel difficultyLevel, int tileID) {
+    static BitBoard createGameTiles(BoardSpec boardSpec, int tileID, RandomStrategy random) {
 
-        Set<Integer> bombIDs = randomBombIDGenerator(difficultyLevel, tileID);
-        int numberOfTiles = difficultyLevel.getNumberOfTiles();
-        List<Tile> gameTiles = new ArrayList<>();
+        BitBoard board = new BitBoard(boardSpec.getFieldLengthInTiles(), boardSpec.getFieldWidthInTiles());
+        placeRandomBombs(board, boardSpec.getNumberOfBombs(), getExcludedIDs(boardSpec, tileID), random);
+        countAdjacentBombs(board);
+        return board;
+    }
+
+    /*
+    The createGameTiles method with an array of bombIDs creates a board with the bombs on exactly the given tiles, for
+    example to rebuild a board that was generated earlier.
+     */
+
+    static BitBoard createGameTiles(BoardSpec boardSpec, int[] bombIDs) {
 
-        for (int index = 0; index < numberOfTiles; index++) {
-            if (bombIDs.contains(index)) gameTiles.add(new BombTile(index));
-            else gameTiles.add(new NormalTile(index));
+        BitBoard board = new BitBoard(boardSpec.getFieldLengthInTiles(), boardSpec.getFieldWidthInTiles());
+        for (int bombID : bombIDs) {
+            board.setBomb(bombID);
         }
-        return gameTiles;
+        countAdjacentBombs(board);
+        return board;
     }
 
     /*
-    The randomBombIDGenerator generates a set of unique IDs (a set cannot contain duplicate values). It first determines
-    the total number of bombs from the given difficulty level. It also needs the total number of tiles, so it knows in
-    what range to generate random numbers. It then tries to add random numbers to the set. Math.random generates a
-    random double between 0 and 1, so we need to multiply this with the number of possible IDs and cast it to an int.
-    If the random ID is already in the set, the add method just returns false, and the loop wil run again.
+    The createChunkBombs method places the bombs of a single chunk of an EndlessBoard, a square of chunkSize tiles,
+    with the same sampling as a normal board. It only returns the bomb words, the EndlessBoard counts the adjacent
+    bombs itself, because the tiles on the edge of a chunk also have neighbours in the chunks around it.
      */
-    private static Set<Integer> randomBombIDGenerator(DifficultyLevel difficultyLevel, int tileID) {
-        int numberOfBombs = difficultyLevel.getNumberOfBombs();
-        int totalTiles = difficultyLevel.getNumberOfTiles();
-        List<Integer> excludedIDs = getAdjacentTileIDs(difficultyLevel, tileID);
-        return fillRandomBombIDSet(numberOfBombs, totalTiles, excludedIDs, tileID);
+
+    static long[] createChunkBombs(int chunkSize, int numberOfBombs, int[] excludedIDs, RandomStrategy random) {
+        BitBoard chunk = new BitBoard(chunkSize, chunkSize);
+        placeRandomBombs(chunk, numberOfBombs, excludedIDs, random);
+        return chunk.getBombWords();
     }
 
     /*
-    This method was later adjusted because I changed the logic so that this method is called after the player first
-    clicks on a tile. This way, the clicked Tile, and the adjacent tiles can be excluded from the randomBombID set.
+    The countAdjacentBombs method calculates the number of adjacent bombs for every tile on the board in one pass.
+    Instead of looking at the tiles one by one, it works on 64 tiles at a time, using the long words of the bomb
+    bitset of the BitBoard.
+
+    For every direction, the bomb bitset is shifted so that the bit of the adjacent tile in that direction ends up at
+    the position of the tile itself. The tile to the left of tile n is tile n - 1, so shifting the bitset one position
+    towards the higher IDs puts the bomb bit of tile n - 1 on position n. The tile above is n - tilesPerRow, the tile
+    above left is n - tilesPerRow - 1, and so on. Tiles on the first column have no tiles to their left, the shift
+    would wrap around to the last tile of the previous row, so those positions are masked out. The same goes for the
+    last column and the tiles to the right.
+
+    This gives 8 bit words for every 64 tiles, one for each direction. Adding them up is done with a bit sliced
+    adder: the ones, twos, fours and eights words together hold a 4 bit count for each of the 64 tiles, and adding a
+    direction word works exactly like adding binary numbers by hand, but for 64 tiles at the same time. Finally the
+    counts are written to the board, only for the tiles that actually have adjacent bombs. The tiles without any
+    adjacent bombs are stored as a bitset as well, see BitBoard.
      */
-    private static Set<Integer> fillRandomBombIDSet(int numberOfBombs, int totalTiles,
-                                                    List<Integer> excludedIDs, int tileID) {
-        Set<Integer> bombIDs = new TreeSet<>();
-        do {
-            int randomID = (int) (Math.random() * (totalTiles));
-            if (randomID != tileID && !excludedIDs.contains(randomID)) bombIDs.add(randomID);
-        } while (bombIDs.size() < numberOfBombs);
-        return bombIDs;
+    static void countAdjacentBombs(BitBoard board) {
+        long[] bombs = board.getBombWords();
+        int tilesPerRow = board.getTilesPerRow();
+        int numberOfTiles = board.getNumberOfTiles();
+        long[] firstColumn = columnMask(board, 0);
+        long[] lastColumn = columnMask(board, tilesPerRow - 1);
+        long[] directions = new long[8];
+        long[] counts = new long[4];
+
+        for (int word = 0; word < bombs.length; word++) {
+            long notFirstColumn = ~firstColumn[word];
+            long notLastColumn = ~lastColumn[word];
+            directions[0] = bitsFromLowerIDs(bombs, word, 1) & notFirstColumn;
+            directions[1] = bitsFromHigherIDs(bombs, word, 1) & notLastColumn;
+            directions[2] = bitsFromLowerIDs(bombs, word, tilesPerRow);
+            directions[3] = bitsFromHigherIDs(bombs, word, tilesPerRow);
+            directions[4] = bitsFromLowerIDs(bombs, word, tilesPerRow + 1) & notFirstColumn;
+            directions[5] = bitsFromLowerIDs(bombs, word, tilesPerRow - 1) & notLastColumn;
+            directions[6] = bitsFromHigherIDs(bombs, word, tilesPerRow - 1) & notFirstColumn;
+            directions[7] = bitsFromHigherIDs(bombs, word, tilesPerRow + 1) & notLastColumn;
+            addDirections(directions, counts);
+            long ones = counts[0], twos = counts[1], fours = counts[2], eights = counts[3];
+
+            int firstTileID = word << 6;
+            long tilesWithAdjacentBombs = ones | twos | fours | eights;
+            long emptyTiles = ~tilesWithAdjacentBombs & ~bombs[word];
+            if (numberOfTiles - firstTileID < 64) emptyTiles &= (1L << (numberOfTiles - firstTileID)) - 1;
+            board.setEmptyWord(word, emptyTiles);
+            while (tilesWithAdjacentBombs != 0) {
+                int bit = Long.numberOfTrailingZeros(tilesWithAdjacentBombs);
+                tilesWithAdjacentBombs &= tilesWithAdjacentBombs - 1;
+                if (firstTileID + bit >= numberOfTiles) break;
+                int count = (int) ((ones >>> bit) & 1) | (int) ((twos >>> bit) & 1) << 1
+                        | (int) ((fours >>> bit) & 1) << 2 | (int) ((eights >>> bit) & 1) << 3;
+                board.setAdjacentBombs(firstTileID + bit, count);
+            }
+        }
     }
 
     /*
-    The getAdjacentBombs method loops through the list with adjacent tiles, obtained from the getAdjacentTiles method,
-    and for each Tile in the list, determines if it is a bomb tile. If so, it increments the bomb count. finally it
-    returns the total bomb count.
+    The addDirections method is the bit sliced adder of countAdjacentBombs. It adds up the 8 direction words and
+    stores the ones, twos, fours and eights words of the sum in the counts array. The EndlessBoard uses it as well, to
+    count the bombs around the tiles of a chunk.
      */
-    public static int getAdjacentBombs(GameField gamefield, int tileID) {
-        int totalAdjacentBombs = 0;
-        for (Tile adjacentTile : getAdjacentTiles(gamefield, tileID)) {
-            if (adjacentTile.isBomb()) totalAdjacentBombs++;
+    static void addDirections(long[] directions, long[] counts) {
+        long ones = 0, twos = 0, fours = 0, eights = 0;
+        for (long direction : directions) {
+            long carryTwos = ones & direction;
+            ones ^= direction;
+            long carryFours = twos & carryTwos;
+            twos ^= carryTwos;
+            long carryEights = fours & carryFours;
+            fours ^= carryFours;
+            eights |= carryEights;
         }
-        return totalAdjacentBombs;
+        counts[0] = ones;
+        counts[1] = twos;
+        counts[2] = fours;
+        counts[3] = eights;
     }
 
     /*
-    The getAdjacentTiles method loops through the array with adjacent tileIDs and first determines if the tileID is on
-    the game field. It then adds tiles from the list with all the tiles to a list containing only adjacent tiles.
+    The bitsFromLowerIDs method returns the given word of the bitset after shifting it distance positions towards the
+    higher IDs, so that bit n holds the value of bit n - distance. The bitsFromHigherIDs method does the opposite.
+    Bits that would come from outside the bitset are 0. A shift of a whole number of words needs its own case, because
+    Java ignores a shift distance of 64 for longs instead of returning 0.
      */
-    private static List<Tile> getAdjacentTiles(GameField gamefield, int tileID) {
-        List<Tile> allTiles = gamefield.getGameFieldTiles();
-        List<Tile> adjacentTiles = new ArrayList<>();
-        int totalTiles = allTiles.size();
-        for (int adjacentTileID : getAdjacentTileIDs(gamefield.getDifficulty(), tileID)) {
-            if (adjacentTileID >= 0 && adjacentTileID < totalTiles) {
-                adjacentTiles.add(allTiles.get(adjacentTileID));
-            }
+    private static long bitsFromLowerIDs(long[] bits, int word, int distance) {
+        int sourceWord = word - (distance >>> 6);
+        int shift = distance & 63;
+        long value = sourceWord >= 0 ? bits[sourceWord] << shift : 0;
+        if (shift != 0 && sourceWord - 1 >= 0) value |= bits[sourceWord - 1] >>> (64 - shift);
+        return value;
+    }
+
+    private static long bitsFromHigherIDs(long[] bits, int word, int distance) {
+        int sourceWord = word + (distance >>> 6);
+        int shift = distance & 63;
+        long value = sourceWord < bits.length ? bits[sourceWord] >>> shift : 0;
+        if (shift != 0 && sourceWord + 1 < bits.length) value |= bits[sourceWord + 1] << (64 - shift);
+        return value;
+    }
+
+    // columnMask returns a bitset in which only the bits of the tiles on the given column are set
+    private static long[] columnMask(BitBoard board, int column) {
+        long[] mask = new long[BitBoard.wordsFor(board.getNumberOfTiles())];
+        for (int tileID = column; tileID < board.getNumberOfTiles(); tileID += board.getTilesPerRow()) {
+            mask[tileID >>> 6] |= 1L << tileID;
         }
-        return adjacentTiles;
+        return mask;
     }
 
     /*
-    The getAdjacentTileIDs method returns a list containing the IDs of the tiles adjacent to the Tile with the given
-    tileID. It needs the gameField as argument to determine the difficulty. Then it determines the IDs based on a
-    position vector. Adding the number of tiles per row to the current tileID returns the tileID of the Tile right below
-    the current tile. The other vectors are based on the same logic. If the current tile is on the first or last column
-    it will have only 5 adjacent tiles instead of 8. So this must be checked.
+    The getExcludedIDs method returns the clicked tile and its adjacent tiles, which can never contain a bomb, so the
+    first click of a game is always safe. The IDs are returned in ascending order, which placeRandomBombs relies on.
      */
-    public static List<Integer> getAdjacentTileIDs(DifficultyLevel difficultyLevel, int tileID) {
-        int tilesPerRow = difficultyLevel.getFieldLengthInTiles();
-        List<Integer> adjacentTileIds;
-        if (isFirstColumn(difficultyLevel, tileID)) {
-            adjacentTileIds = Arrays.asList(tileID + 1, tileID - tilesPerRow, tileID - tilesPerRow + 1,
-                    tileID + tilesPerRow, tileID + tilesPerRow + 1);
-        } else if (isLastColumn(difficultyLevel, tileID)) {
-            adjacentTileIds = Arrays.asList(tileID - 1, tileID - tilesPerRow - 1,
-                    tileID - tilesPerRow, tileID + tilesPerRow,
-                    tileID + tilesPerRow - 1);
-        } else {
-            adjacentTileIds = Arrays.asList(tileID - 1, tileID + 1, tileID - tilesPerRow - 1,
-                    tileID - tilesPerRow, tileID - tilesPerRow + 1, tileID + tilesPerRow,
-                    tileID + tilesPerRow - 1, tileID + tilesPerRow + 1);
+    private static int[] getExcludedIDs(BoardSpec boardSpec, int tileID) {
+        return getExcludedIDs(NeighbourTable.forBoardSpec(boardSpec), tileID);
+    }
+
+    static int[] getExcludedIDs(NeighbourTable neighbourTable, int tileID) {
+        int[] excludedIDs = new int[9];
+        int numberOfAdjacentTiles = neighbourTable.getAdjacentTileIDs(tileID, excludedIDs);
+        excludedIDs[numberOfAdjacentTiles] = tileID;
+        excludedIDs = Arrays.copyOf(excludedIDs, numberOfAdjacentTiles + 1);
+        Arrays.sort(excludedIDs);
+        return excludedIDs;
+    }
+
+    /*
+    The placeRandomBombs method used to be a loop which kept drawing random IDs until a TreeSet contained enough
+    bombs. When most of the tiles are bombs, almost every draw hits a tile that already is one, so the number of draws
+    would explode. It now uses Robert Floyd's sampling algorithm, which draws exactly one random number per bomb.
+
+    Floyd's algorithm picks the bombs out of the candidates 0 to candidates - 1, where the candidates are all tiles
+    except the excluded ones. For every j from candidates - numberOfBombs up to candidates - 1, it draws a random
+    candidate between 0 and j. If that candidate already is a bomb, it takes candidate j instead, which can't be a bomb
+    yet because every earlier draw was smaller than j. Every set of bombs is equally likely this way. The bomb bitset
+    of the board doubles as the set of chosen candidates, so no extra memory is needed.
+
+    The version taking an IntPredicate and an IntConsumer places the bombs on any kind of board, for example the
+    MappedBoard, which stores its tiles in a file instead of in bitsets.
+     */
+    private static void placeRandomBombs(BitBoard board, int numberOfBombs, int[] excludedIDs, RandomStrategy random) {
+        placeRandomBombs(board.getNumberOfTiles(), numberOfBombs, excludedIDs, random, board::isBomb, board::setBomb);
+    }
+
+    static void placeRandomBombs(int numberOfTiles, int numberOfBombs, int[] excludedIDs, RandomStrategy random,
+                                 IntPredicate isBomb, IntConsumer setBomb) {
+        int candidates = numberOfTiles - excludedIDs.length;
+        if (numberOfBombs > candidates) {
+            throw new IllegalArgumentException("Cannot place " + numberOfBombs + " bombs on " + candidates + " tiles");
+        }
+        for (int j = candidates - numberOfBombs; j < candidates; j++) {
+            int bombID = toTileID(random.nextInt(j + 1), excludedIDs);
+            if (isBomb.test(bombID)) bombID = toTileID(j, excludedIDs);
+            setBomb.accept(bombID);
         }
-        return adjacentTileIds;
     }
 
     /*
-    isFirstColumn determines if the given tileID is on the first column
+    The toTileID method converts a candidate number to a tileID by skipping the excluded IDs. Every excluded ID that
+    is smaller than or equal to the tileID found so far moves the tileID one further.
      */
-    private static boolean isFirstColumn(DifficultyLevel difficultyLevel, int tileID) {
-        int tilesPerRow = difficultyLevel.getFieldLengthInTiles();
-        return tileID % tilesPerRow == 0;
+    private static int toTileID(int candidate, int[] excludedIDs) {
+        int tileID = candidate;
+        for (int excludedID : excludedIDs) {
+            if (excludedID <= tileID) tileID++;
+            else break;
+        }
+        return tileID;
     }
 
     /*
-    isLastColumn determines if the given tileID is on the last column
+    The getAdjacentBombs method used to loop through a list of adjacent tiles and count the bombs on every call. The
+    counts are now calculated once when the board is created, so this just looks up the stored count.
      */
-    private static boolean isLastColumn(DifficultyLevel difficultyLevel, int tileID) {
-        int tilesPerRow = difficultyLevel.getFieldLengthInTiles();
-        return (tileID + 1) % tilesPerRow == 0;
+    public static int getAdjacentBombs(GameField gamefield, int tileID) {
+        return gamefield.getAdjacentBombs(tileID);
+    }
+
+    /*
+    The getAdjacentTileIDs method used to build a new list of the IDs around the given tile on every call, including
+    IDs that fall outside the game field. It now copies the valid adjacent tileIDs from the NeighbourTable of the
+    difficulty level into the given array and returns how many there are. The array needs room for 8 IDs and can be
+    reused between calls. See the NeighbourTable class for how the table is built.
+     */
+    public static int getAdjacentTileIDs(DifficultyLevel difficultyLevel, int tileID, int[] adjacentTileIDs) {
+        return NeighbourTable.forDifficulty(difficultyLevel).getAdjacentTileIDs(tileID, adjacentTileIDs);
+    }
+
+    public static int getAdjacentTileIDs(BoardSpec boardSpec, int tileID, int[] adjacentTileIDs) {
+        return NeighbourTable.forBoardSpec(boardSpec).getAdjacentTileIDs(tileID, adjacentTileIDs);
     }
 }
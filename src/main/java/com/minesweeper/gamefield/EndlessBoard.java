@@ -0,0 +1,371 @@
+package com.minesweeper.gamefield;
+
+import com.minesweeper.GameUtils.GameState;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.minesweeper.gamefield.CreateGameFieldFunctions.addDirections;
+import static com.minesweeper.gamefield.CreateGameFieldFunctions.createChunkBombs;
+
+/*
+The EndlessBoard class is the game field of the endless mode, a board without edges. A normal game field is created in
+one go, which is impossible for a board that never ends, so the endless board is split into chunks of 64 by 64 tiles,
+see the Chunk class. A chunk is only generated when it is first needed, because the player revealed or flagged one of
+its tiles, or one of its neighbours needed its bombs to count.
+
+The bombs of a chunk are placed with the same sampling as a normal game field, using a RandomStrategy seeded with a mix
+of the world seed and the coordinates of the chunk. The same world seed therefore always gives the same world, in
+whatever order the chunks are generated, and a chunk that was thrown away can be generated again exactly as it was.
+The tiles around the world origin (0, 0) never contain a bomb, the game starts by revealing that tile, just like the
+first click of a normal game.
+
+Memory is bounded by the area the player is working on, not by the size of the world. At most maxLoadedChunks chunks
+are kept in memory, in a LinkedHashMap in access order, so the first entry is always the chunk that was used least
+recently. When a chunk has to make room, it is simply dropped if the player never touched it. Otherwise only the state
+of the player is kept, in the compact form of Chunk.compact, which shrinks to a few words once a chunk is finished. A
+dropped chunk is generated again, and its state restored, as soon as it is needed. Chunks are never evicted in the
+middle of an action: a reveal can touch many chunks, and evicting one of those while it is being changed would lose
+the change, so the loaded chunks are trimmed back to the limit afterwards.
+
+The world is 2^32 tiles wide and high, coordinates simply wrap around at the int range, and so do the chunks when
+their bombs are counted. The number of bombs per chunk has a lower bound, because on a board with very few bombs the
+empty areas connect into one area without end, and a single click would try to reveal all of it.
+
+An EndlessBoard is not thread safe, it should only be used by one thread at a time.
+ */
+
+public class EndlessBoard {
+
+    public static final int CHUNK_SIZE = Chunk.SIZE;
+    public static final int MIN_BOMBS_PER_CHUNK = Chunk.NUMBER_OF_TILES / 8;
+    public static final int MAX_BOMBS_PER_CHUNK = Chunk.NUMBER_OF_TILES / 2;
+    public static final int DEFAULT_BOMBS_PER_CHUNK = 640;
+    public static final long DEFAULT_MEMORY_BUDGET = 32L << 20;
+
+    // a chunk that is counted needs its 8 neighbours, and a reveal must be able to count the chunks around the click
+    private static final int MIN_LOADED_CHUNKS = 16;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int CHUNK_SHIFT = Integer.numberOfTrailingZeros(CHUNK_SIZE);
+
+    private final long worldSeed;
+    private final int bombsPerChunk;
+    private final int maxLoadedChunks;
+    private final LinkedHashMap<Long, Chunk> loadedChunks = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<Long, long[]> storedChunks = new HashMap<>();
+    private boolean evictionPaused;
+    private long lastChunkKey;
+    private Chunk lastChunk;
+    private long numberOfRevealedTiles;
+    private GameState state = GameState.PLAYING;
+
+    public EndlessBoard(long worldSeed) {
+        this(worldSeed, DEFAULT_BOMBS_PER_CHUNK, DEFAULT_MEMORY_BUDGET);
+    }
+
+    public EndlessBoard(long worldSeed, int bombsPerChunk, long memoryBudgetInBytes) {
+        if (bombsPerChunk < MIN_BOMBS_PER_CHUNK || bombsPerChunk > MAX_BOMBS_PER_CHUNK) {
+            throw new IllegalArgumentException("The number of bombs per chunk must be between " + MIN_BOMBS_PER_CHUNK
+                    + " and " + MAX_BOMBS_PER_CHUNK + ", was " + bombsPerChunk);
+        }
+        this.worldSeed = worldSeed;
+        this.bombsPerChunk = bombsPerChunk;
+        this.maxLoadedChunks = (int) Math.min(Integer.MAX_VALUE,
+                Math.max(MIN_LOADED_CHUNKS, memoryBudgetInBytes / Chunk.APPROXIMATE_SIZE_IN_BYTES));
+    }
+
+    /*
+    The reveal method reveals the tile at the given coordinates, and when it has no adjacent bombs, the whole area
+    around it, like the RevealEngine does on a normal board. The area may cross any number of chunks, so it is filled
+    a tile at a time, with a stack of packed coordinates. Revealing a bomb ends the game.
+     */
+    public EndlessDelta reveal(int x, int y) {
+        if (state.isFinished()) return EndlessDelta.EMPTY;
+        evictionPaused = true;
+        try {
+            return revealTile(x, y);
+        } finally {
+            evictionPaused = false;
+            trim();
+        }
+    }
+
+    /*
+    The chord method reveals the adjacent tiles of a revealed number when exactly as many flags are placed around it,
+    see the chord method of GameSession.
+     */
+    public EndlessDelta chord(int x, int y) {
+        if (state.isFinished() || !isRevealed(x, y)) return EndlessDelta.EMPTY;
+        int numberOfAdjacentBombs = getAdjacentBombs(x, y);
+        if (numberOfAdjacentBombs == 0) return EndlessDelta.EMPTY;
+        int numberOfAdjacentFlags = 0;
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                if ((dx != 0 || dy != 0) && isFlagged(x + dx, y + dy)) numberOfAdjacentFlags++;
+            }
+        }
+        if (numberOfAdjacentFlags != numberOfAdjacentBombs) return EndlessDelta.EMPTY;
+
+        long[] revealedTiles = new long[0];
+        int size = 0;
+        boolean bombHit = false;
+        evictionPaused = true;
+        try {
+            for (int dy = -1; dy <= 1 && !bombHit; dy++) {
+                for (int dx = -1; dx <= 1 && !bombHit; dx++) {
+                    EndlessDelta delta = revealTile(x + dx, y + dy);
+                    if (delta.isEmpty()) continue;
+                    revealedTiles = Arrays.copyOf(revealedTiles, size + delta.size());
+                    System.arraycopy(delta.getRevealedTiles(), 0, revealedTiles, size, delta.size());
+                    size += delta.size();
+                    bombHit = delta.isBombHit();
+                }
+            }
+        } finally {
+            evictionPaused = false;
+            trim();
+        }
+        return new EndlessDelta(revealedTiles, size, bombHit);
+    }
+
+    // The toggleFlag method places or removes a flag, and returns whether the tile is flagged afterwards.
+    public boolean toggleFlag(int x, int y) {
+        Chunk chunk = getChunk(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT);
+        if (state.isFinished() || chunk.isRevealed(x & CHUNK_MASK, y & CHUNK_MASK)) {
+            return chunk.isFlagged(x & CHUNK_MASK, y & CHUNK_MASK);
+        }
+        return chunk.toggleFlag(x & CHUNK_MASK, y & CHUNK_MASK);
+    }
+
+    /*
+    The query methods below never generate a chunk that doesn't exist yet. A tile of a chunk that was never generated
+    can't be revealed or flagged, so there is no need to, which means just looking around the world costs nothing.
+     */
+    public boolean isRevealed(int x, int y) {
+        Chunk chunk = findChunk(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT);
+        return chunk != null && chunk.isRevealed(x & CHUNK_MASK, y & CHUNK_MASK);
+    }
+
+    public boolean isFlagged(int x, int y) {
+        Chunk chunk = findChunk(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT);
+        return chunk != null && chunk.isFlagged(x & CHUNK_MASK, y & CHUNK_MASK);
+    }
+
+    // isBomb and getAdjacentBombs may only be asked for revealed tiles, or after the game is over
+    public boolean isBomb(int x, int y) {
+        return getChunk(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT).isBomb(x & CHUNK_MASK, y & CHUNK_MASK);
+    }
+
+    public int getAdjacentBombs(int x, int y) {
+        return getCountedChunk(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT).getAdjacentBombs(x & CHUNK_MASK, y & CHUNK_MASK);
+    }
+
+    public GameState getState() {
+        return state;
+    }
+
+    public long getNumberOfRevealedTiles() {
+        return numberOfRevealedTiles;
+    }
+
+    public int getNumberOfLoadedChunks() {
+        return loadedChunks.size();
+    }
+
+    public int getNumberOfStoredChunks() {
+        return storedChunks.size();
+    }
+
+    private EndlessDelta revealTile(int x, int y) {
+        Chunk chunk = getCountedChunk(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT);
+        int column = x & CHUNK_MASK;
+        int row = y & CHUNK_MASK;
+        if (!chunk.reveal(column, row)) return EndlessDelta.EMPTY;
+        numberOfRevealedTiles++;
+        if (chunk.isBomb(column, row)) {
+            state = GameState.LOST;
+            return new EndlessDelta(new long[]{EndlessDelta.pack(x, y)}, 1, true);
+        }
+        if (!chunk.isEmpty(column, row)) return new EndlessDelta(new long[]{EndlessDelta.pack(x, y)}, 1, false);
+        return fill(x, y);
+    }
+
+    /*
+    The fill method reveals the area around an empty tile that was just revealed. Every empty tile taken from the stack
+    reveals its neighbours, and the neighbours that are empty as well are put on the stack in turn. The neighbours of
+    an empty tile can't be bombs, and flagged tiles are never revealed, so they stop the fill.
+     */
+    private EndlessDelta fill(int x, int y) {
+        long[] revealedTiles = new long[64];
+        long[] stack = new long[64];
+        revealedTiles[0] = EndlessDelta.pack(x, y);
+        stack[0] = revealedTiles[0];
+        int size = 1;
+        int stackSize = 1;
+        while (stackSize > 0) {
+            long tile = stack[--stackSize];
+            int tileX = (int) (tile >> 32);
+            int tileY = (int) tile;
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    int neighbourX = tileX + dx;
+                    int neighbourY = tileY + dy;
+                    Chunk chunk = getCountedChunk(neighbourX >> CHUNK_SHIFT, neighbourY >> CHUNK_SHIFT);
+                    int column = neighbourX & CHUNK_MASK;
+                    int row = neighbourY & CHUNK_MASK;
+                    if (!chunk.reveal(column, row)) continue;
+                    long neighbour = EndlessDelta.pack(neighbourX, neighbourY);
+                    if (size == revealedTiles.length) revealedTiles = Arrays.copyOf(revealedTiles, size * 2);
+                    revealedTiles[size++] = neighbour;
+                    if (chunk.isEmpty(column, row)) {
+                        if (stackSize == stack.length) stack = Arrays.copyOf(stack, stackSize * 2);
+                        stack[stackSize++] = neighbour;
+                    }
+                }
+            }
+        }
+        numberOfRevealedTiles += size - 1;
+        return new EndlessDelta(revealedTiles, size, false);
+    }
+
+    /*
+    The findChunk method returns a chunk that is loaded, or that was stored and can be restored, but returns null for
+    a chunk that was never generated. The getChunk method generates the chunk in that case. The chunk that was used
+    last is remembered, because most lookups are for neighbouring tiles on the same chunk.
+     */
+    private Chunk findChunk(int chunkX, int chunkY) {
+        long key = EndlessDelta.pack(chunkX, chunkY);
+        if (lastChunk != null && lastChunkKey == key) return lastChunk;
+        Chunk chunk = loadedChunks.get(key);
+        if (chunk == null) {
+            long[] storedState = storedChunks.remove(key);
+            if (storedState == null) return null;
+            chunk = generateChunk(chunkX, chunkY);
+            chunk.restore(storedState);
+            load(key, chunk);
+        }
+        lastChunkKey = key;
+        lastChunk = chunk;
+        return chunk;
+    }
+
+    private Chunk getChunk(int chunkX, int chunkY) {
+        Chunk chunk = findChunk(chunkX, chunkY);
+        if (chunk == null) {
+            long key = EndlessDelta.pack(chunkX, chunkY);
+            chunk = generateChunk(chunkX, chunkY);
+            load(key, chunk);
+            lastChunkKey = key;
+            lastChunk = chunk;
+        }
+        return chunk;
+    }
+
+    /*
+    The getCountedChunk method returns a chunk of which the adjacent bombs are counted. Counting is done a row at a
+    time, with the same bit sliced adder as a normal game field. Because a row of a chunk is a single long, the tiles
+    to the left and right are just the row shifted by one, with the bit on the edge taken from the row of the chunk
+    next to it. The rows above the first and below the last row come from the chunks above and below.
+     */
+    private Chunk getCountedChunk(int chunkX, int chunkY) {
+        Chunk chunk = getChunk(chunkX, chunkY);
+        if (chunk.isCounted()) return chunk;
+        Chunk[][] neighbourhood = new Chunk[3][3];
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                neighbourhood[dy + 1][dx + 1] = dx == 0 && dy == 0 ? chunk
+                        : getChunk(wrapChunkCoordinate(chunkX + dx), wrapChunkCoordinate(chunkY + dy));
+            }
+        }
+        long[][] counts = new long[4][CHUNK_SIZE];
+        long[] directions = new long[8];
+        long[] sums = new long[4];
+        for (int row = 0; row < CHUNK_SIZE; row++) {
+            int direction = 0;
+            for (int dy = -1; dy <= 1; dy++) {
+                long center = getBombRow(neighbourhood, 0, row + dy);
+                long left = getBombRow(neighbourhood, -1, row + dy);
+                long right = getBombRow(neighbourhood, 1, row + dy);
+                directions[direction++] = center << 1 | left >>> (CHUNK_SIZE - 1);
+                directions[direction++] = center >>> 1 | right << (CHUNK_SIZE - 1);
+                if (dy != 0) directions[direction++] = center;
+            }
+            addDirections(directions, sums);
+            for (int plane = 0; plane < 4; plane++) {
+                counts[plane][row] = sums[plane];
+            }
+        }
+        chunk.setCounts(counts);
+        return chunk;
+    }
+
+    /*
+    The wrapChunkCoordinate method wraps a chunk coordinate around the edge of the world, the same way tile coordinates
+    wrap around at the int range. Chunk coordinates lie between -2^25 and 2^25, so the chunk to the right of the last
+    one is the first one, just like the tile to the right of Integer.MAX_VALUE is Integer.MIN_VALUE.
+     */
+    private static int wrapChunkCoordinate(int chunkCoordinate) {
+        return chunkCoordinate << CHUNK_SHIFT >> CHUNK_SHIFT;
+    }
+
+    // getBombRow returns a row of the chunk at the given column offset, where rows -1 and SIZE lie in the next chunks
+    private static long getBombRow(Chunk[][] neighbourhood, int chunkColumn, int row) {
+        int chunkRow = row < 0 ? 0 : row < CHUNK_SIZE ? 1 : 2;
+        return neighbourhood[chunkRow][chunkColumn + 1].getBombRow(row & CHUNK_MASK);
+    }
+
+    private Chunk generateChunk(int chunkX, int chunkY) {
+        RandomStrategy random = RandomStrategy.splittable(getChunkSeed(chunkX, chunkY));
+        return new Chunk(createChunkBombs(CHUNK_SIZE, bombsPerChunk, getExcludedIDs(chunkX, chunkY), random));
+    }
+
+    /*
+    The getChunkSeed method mixes the world seed with the coordinates of the chunk, with the finalizer of the
+    SplitMix64 generator, so neighbouring chunks get unrelated seeds.
+     */
+    private long getChunkSeed(int chunkX, int chunkY) {
+        long z = worldSeed + EndlessDelta.pack(chunkX, chunkY) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // getExcludedIDs returns the tiles of the chunk that lie around the world origin, in ascending order
+    private static int[] getExcludedIDs(int chunkX, int chunkY) {
+        int[] excludedIDs = new int[9];
+        int numberOfExcludedIDs = 0;
+        for (int y = -1; y <= 1; y++) {
+            for (int x = -1; x <= 1; x++) {
+                if (x >> CHUNK_SHIFT == chunkX && y >> CHUNK_SHIFT == chunkY) {
+                    excludedIDs[numberOfExcludedIDs++] = (y & CHUNK_MASK) * CHUNK_SIZE + (x & CHUNK_MASK);
+                }
+            }
+        }
+        excludedIDs = Arrays.copyOf(excludedIDs, numberOfExcludedIDs);
+        Arrays.sort(excludedIDs);
+        return excludedIDs;
+    }
+
+    private void load(long key, Chunk chunk) {
+        loadedChunks.put(key, chunk);
+        if (!evictionPaused) trim();
+    }
+
+    /*
+    The trim method evicts the least recently used chunks until no more than maxLoadedChunks are loaded. The state of
+    a chunk the player touched is stored in compact form first.
+     */
+    private void trim() {
+        Iterator<Map.Entry<Long, Chunk>> iterator = loadedChunks.entrySet().iterator();
+        while (loadedChunks.size() > maxLoadedChunks) {
+            Map.Entry<Long, Chunk> eldest = iterator.next();
+            Chunk chunk = eldest.getValue();
+            if (chunk.isTouched()) storedChunks.put(eldest.getKey(), chunk.compact());
+            if (chunk == lastChunk) lastChunk = null;
+            iterator.remove();
+        }
+    }
+}
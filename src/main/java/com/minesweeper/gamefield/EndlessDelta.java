@@ -0,0 +1,57 @@
+package com.minesweeper.gamefield;
+
+import java.util.Arrays;
+
+/*
+The EndlessDelta class is the RevealDelta of an EndlessBoard. An endless board has no tileIDs, a tile is identified by
+its x and y coordinate instead, which are packed together into a single long: x in the high 32 bits and y in the low 32
+bits. That way the newly revealed tiles are still kept in one primitive array.
+ */
+
+public class EndlessDelta {
+
+    static final EndlessDelta EMPTY = new EndlessDelta(new long[0], 0, false);
+
+    private final long[] revealedTiles;
+    private final int size;
+    private final boolean bombHit;
+
+    EndlessDelta(long[] revealedTiles, int size, boolean bombHit) {
+        this.revealedTiles = revealedTiles;
+        this.size = size;
+        this.bombHit = bombHit;
+    }
+
+    static long pack(int x, int y) {
+        return (long) x << 32 | (y & 0xFFFFFFFFL);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getX(int index) {
+        return (int) (get(index) >> 32);
+    }
+
+    public int getY(int index) {
+        return (int) get(index);
+    }
+
+    public boolean isBombHit() {
+        return bombHit;
+    }
+
+    long[] getRevealedTiles() {
+        return Arrays.copyOf(revealedTiles, size);
+    }
+
+    private long get(int index) {
+        if (index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        return revealedTiles[index];
+    }
+}
@@ -1,16 +1,20 @@
 package com.minesweeper.gamefield;
 
+import com.minesweeper.GameUtils.BoardSpec;
 import com.minesweeper.GameUtils.DifficultyLevel;
+import com.minesweeper.Tile.BombTile;
+import com.minesweeper.Tile.NormalTile;
 import com.minesweeper.Tile.Tile;
-import java.util.List;
+
+import java.util.concurrent.ThreadLocalRandom;
 
 import static com.minesweeper.gamefield.CreateGameFieldFunctions.createGameTiles;
 
 /*
-The GameField class represents an abstraction of the game field. The state of a GameField object contains a list of all
-the tiles, and a DifficultyLevel. The object also contains a static reference to itself, which is no longer used.
-I created this class with the idea of implementing the singleton pattern, because there should only exist one GameField
-object throughout the entire application.
+The GameField class represents an abstraction of the game field. The state of a GameField object contains a BitBoard
+holding the state of all the tiles, and the BoardSpec describing its shape. The object also contains a static
+reference to itself, which is no longer used. I created this class with the idea of implementing the singleton
+pattern, because there should only exist one GameField object throughout the entire application.
 
 The singleton pattern describes that a GameField object can only be created through a factory method, which first checks
 if the static reference variable already points to an existing GameField object, if so, it will just return a reference
@@ -18,18 +22,30 @@ to that object. The factory method will only return a new object when the static
 
 However the singleton pattern turned out to be a suboptimal design choice because it prevented me from starting a new
 game, The getGame method would just return the exact same GameField object. So I had to alter the class which no longer
-makes it a singleton. It is still immutable.
+makes it a singleton. The positions of the bombs are still immutable, only the revealed and flagged state of the tiles
+changes during a game.
+
+The GameField used to hold a List of Tile objects. It now delegates to a BitBoard, see that class for the reasoning.
+Tile objects are only created on request by getTile, as a read-only view of a single tile.
+
+A GameField can have any shape a BoardSpec can describe. The factory methods taking a DifficultyLevel are kept for
+convenience, they use the BoardSpec of the DifficultyLevel.
  */
 
-public class GameField {
+public class GameField implements Board {
 
 //    private static GameField currentGame;
-    private List<Tile> gameFieldTiles;
-    private DifficultyLevel difficulty;
+    private BitBoard board;
+    private BoardSpec boardSpec;
+
+    private GameField(BoardSpec boardSpec, int tileID, RandomStrategy random) {
+        this.board = setGameFieldTiles(boardSpec, tileID, random);
+        this.boardSpec = boardSpec;
+    }
 
-    private GameField(DifficultyLevel difficultyLevel, int tileID) {
-        this.gameFieldTiles = setGameFieldTiles(difficultyLevel, tileID);
-        this.difficulty = difficultyLevel;
+    private GameField(BoardSpec boardSpec, BitBoard board) {
+        this.board = board;
+        this.boardSpec = boardSpec;
     }
 
     /*
@@ -45,25 +61,122 @@ public class GameField {
 //        else return currentGame;
 //    }
 
+    /*
+    The restartGame method creates a new GameField. Without a seed, a random seed is taken from the ThreadLocalRandom of
+    the current thread, which never has to wait for other threads. With a seed, the same seed and the same clicked tile
+    always result in the same game field, which makes it possible to replay a game. The RandomStrategy version lets the
+    caller decide which random number generator is used, see the RandomStrategy interface.
+     */
+
     public static GameField restartGame(DifficultyLevel difficultyLevel, int tileID) {
-        return new GameField(difficultyLevel, tileID);
+        return restartGame(difficultyLevel.getBoardSpec(), tileID);
+    }
+
+    public static GameField restartGame(DifficultyLevel difficultyLevel, int tileID, long seed) {
+        return restartGame(difficultyLevel.getBoardSpec(), tileID, seed);
+    }
+
+    public static GameField restartGame(DifficultyLevel difficultyLevel, int tileID, RandomStrategy random) {
+        return restartGame(difficultyLevel.getBoardSpec(), tileID, random);
+    }
+
+    public static GameField restartGame(BoardSpec boardSpec, int tileID) {
+        return restartGame(boardSpec, tileID, ThreadLocalRandom.current().nextLong());
+    }
+
+    public static GameField restartGame(BoardSpec boardSpec, int tileID, long seed) {
+        return restartGame(boardSpec, tileID, RandomStrategy.splittable(seed));
+    }
+
+    public static GameField restartGame(BoardSpec boardSpec, int tileID, RandomStrategy random) {
+        return new GameField(boardSpec, tileID, random);
+    }
+
+    /*
+    The createFromBombs method creates a GameField with bombs on exactly the given tiles, instead of random ones.
+     */
+
+    public static GameField createFromBombs(DifficultyLevel difficultyLevel, int[] bombTileIDs) {
+        return createFromBombs(difficultyLevel.getBoardSpec(), bombTileIDs);
+    }
+
+    public static GameField createFromBombs(BoardSpec boardSpec, int[] bombTileIDs) {
+        return new GameField(boardSpec, createGameTiles(boardSpec, bombTileIDs));
     }
 
     /*
-    The setGameFieldTiles returns the list of tiles which make a game field. It calls upon a static method of the
+    The setGameFieldTiles returns the board which makes a game field. It calls upon a static method of the
     CreateGameFieldFunctions class, which does the actual work. In hindsight the setGameFieldTiles method here is
     probably redundant. I left it in for illustration purposes, mainly to be better able to discuss design choices.
      */
-    private List<Tile> setGameFieldTiles(DifficultyLevel difficultyLevel, int tileID) {
-        return createGameTiles(difficultyLevel, tileID);
+    private BitBoard setGameFieldTiles(BoardSpec boardSpec, int tileID, RandomStrategy random) {
+        return createGameTiles(boardSpec, tileID, random);
     }
 
-    public List<Tile> getGameFieldTiles() {
-        return gameFieldTiles;
+    public BitBoard getBoard() {
+        return board;
+    }
+
+    /*
+    The reveal method reveals the given tile, and the area around it when it has no adjacent bombs. It returns the
+    newly revealed tiles, so the user interface knows which tiles to update. See RevealEngine for the details.
+     */
+    public RevealDelta reveal(int tileID) {
+        return RevealEngine.reveal(board, tileID);
     }
 
+    public Tile getTile(int tileID) {
+        if (board.isBomb(tileID)) return new BombTile(tileID);
+        else return new NormalTile(tileID);
+    }
+
+    // getDifficulty returns the DifficultyLevel of the game field, or null when it has a custom BoardSpec
     public DifficultyLevel getDifficulty() {
-        return difficulty;
+        return boardSpec.getDifficultyLevel();
+    }
+
+    public BoardSpec getBoardSpec() {
+        return boardSpec;
+    }
+
+    @Override
+    public int getNumberOfTiles() {
+        return board.getNumberOfTiles();
+    }
+
+    @Override
+    public int getNumberOfBombs() {
+        return board.getNumberOfBombs();
+    }
+
+    @Override
+    public int getTilesPerRow() {
+        return board.getTilesPerRow();
+    }
+
+    @Override
+    public int getNumberOfRows() {
+        return board.getNumberOfRows();
+    }
+
+    @Override
+    public boolean isBomb(int tileID) {
+        return board.isBomb(tileID);
+    }
+
+    @Override
+    public boolean isRevealed(int tileID) {
+        return board.isRevealed(tileID);
+    }
+
+    @Override
+    public boolean isFlagged(int tileID) {
+        return board.isFlagged(tileID);
+    }
+
+    @Override
+    public int getAdjacentBombs(int tileID) {
+        return board.getAdjacentBombs(tileID);
     }
 
     /*
@@ -73,12 +186,12 @@ public class GameField {
 
     @Override
     public String toString() {
-        StringBuilder gameFieldString = new StringBuilder();
-        int numberOfTiles = gameFieldTiles.size();
-        int tilesPerRow = difficulty.getFieldLengthInTiles();
+        int numberOfTiles = board.getNumberOfTiles();
+        int tilesPerRow = board.getTilesPerRow();
+        StringBuilder gameFieldString = new StringBuilder(numberOfTiles * 2 + board.getNumberOfRows());
 
         for (int i = 1; i <= numberOfTiles; i++) {
-            gameFieldString.append(gameFieldTiles.get(i - 1).toString());
+            gameFieldString.append(board.isBomb(i - 1) ? "B " : "- ");
             if (i % (tilesPerRow) == 0) gameFieldString.append("\n");
         }
         return gameFieldString.toString();
@@ -0,0 +1,15 @@
+package com.minesweeper.gamefield;
+
+import com.minesweeper.GameUtils.BoardSpec;
+
+/*
+The GameFieldFactory interface decides how a GameSession creates its game field after the first click. By default
+GameField::restartGame is used, which places the bombs at random. Other factories can place them differently, for
+example the NoGuessGenerator, which only hands out game fields that can be solved without guessing.
+ */
+
+@FunctionalInterface
+public interface GameFieldFactory {
+
+    GameField createGameField(BoardSpec boardSpec, int tileID, RandomStrategy random);
+}
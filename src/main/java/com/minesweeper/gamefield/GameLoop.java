@@ -0,0 +1,290 @@
+package com.minesweeper.gamefield;
+
+import com.minesweeper.GameUtils.GameState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/*
+The GameLoop class plays a GameSession on a thread of its own. A GameSession is not thread safe, and it used to be
+played directly by the event dispatch thread, while the BoardView read it to paint and other threads read it for the
+score panel and the game over sequence. The GameLoop is now the only thread that touches the GameSession. Everybody
+else sends it commands, like reveal or flag, which are put on a queue, and the loop applies them one after the other.
+
+After applying commands the loop publishes a GameSnapshot, which can't be changed, to the listener, and keeps it as the
+latest snapshot for anyone who wants to read it. Nothing is shared between threads except the queue and the snapshots,
+so there are no locks around the game itself. The listener is called on the thread of the GameLoop, a listener that
+updates Swing components should hand the snapshot to the event dispatch thread.
+
+Commands that arrive faster than they can be applied, for example from a bot or a replay, are taken from the queue in
+batches of at most MAX_BATCH_SIZE, and a whole batch results in a single snapshot, so the listener isn't flooded. The
+commands themselves are applied in the order they were sent, across games as well: a command sent after newGame is
+applied to the new game, one sent before it to the old game.
+
+A snapshot only holds what changed, so a view has to see every snapshot of a game to know what all tiles look like. A
+view that starts late, or was reset, calls requestFullSnapshot instead of replaying the snapshots it missed, the next
+snapshot then also holds the tile codes of all tiles.
+
+The thread of a GameLoop is a daemon thread, so it never keeps the application from exiting. Call shutdown when the
+GameLoop is no longer needed.
+ */
+
+public class GameLoop {
+
+    private static final int MAX_BATCH_SIZE = 256;
+    private static final int INITIAL_CHANGED_TILES = 64;
+
+    private enum CommandType {NEW_GAME, OPEN, REVEAL, FLAG, CHORD, FULL_SNAPSHOT, SHUTDOWN}
+
+    private static final class Command {
+        private final CommandType type;
+        private final int tileID;
+        private final GameSession gameSession;
+        private final long gameID;
+
+        private Command(CommandType type, int tileID, GameSession gameSession, long gameID) {
+            this.type = type;
+            this.tileID = tileID;
+            this.gameSession = gameSession;
+            this.gameID = gameID;
+        }
+    }
+
+    private final BlockingQueue<Command> commands = new LinkedBlockingQueue<>();
+    private final Consumer<GameSnapshot> listener;
+    private final AtomicLong lastGameID = new AtomicLong();
+    private final Thread thread;
+    private volatile GameSnapshot latestSnapshot;
+
+    // these fields are only used by the thread of the GameLoop
+    private GameSession gameSession;
+    private long gameID;
+    private long numberOfCommands;
+    private GameState publishedState;
+    private int[] changedTileIDs = new int[INITIAL_CHANGED_TILES];
+    private int numberOfChangedTiles;
+    private boolean unpublished;
+    private boolean fullSnapshotRequested;
+
+    public GameLoop(Consumer<GameSnapshot> listener) {
+        this.listener = listener;
+        this.thread = new Thread(this::run, "game-loop");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /*
+    The newGame method makes the GameLoop play the given GameSession from now on. It returns the gameID the snapshots
+    of this game will have. The GameSession must not be used by anyone else anymore.
+     */
+    public long newGame(GameSession gameSession) {
+        long newGameID = lastGameID.incrementAndGet();
+        commands.add(new Command(CommandType.NEW_GAME, ChangeSet.NO_TILE, gameSession, newGameID));
+        return newGameID;
+    }
+
+    // The open method does what a left click does: it reveals a hidden tile, or chords a revealed one.
+    public void open(int tileID) {
+        send(CommandType.OPEN, tileID);
+    }
+
+    public void reveal(int tileID) {
+        send(CommandType.REVEAL, tileID);
+    }
+
+    public void flag(int tileID) {
+        send(CommandType.FLAG, tileID);
+    }
+
+    public void chord(int tileID) {
+        send(CommandType.CHORD, tileID);
+    }
+
+    /*
+    The requestFullSnapshot method makes the GameLoop publish a snapshot holding the tile codes of all tiles of the
+    current game, as they are after the commands that were sent before it. It is ignored when no game was started yet.
+     */
+    public void requestFullSnapshot() {
+        send(CommandType.FULL_SNAPSHOT, ChangeSet.NO_TILE);
+    }
+
+    /*
+    The getLatestSnapshot method returns the state of the last published snapshot, or null when nothing was published
+    yet. It holds no changed tiles, those are only handed to the listener, so a large reveal isn't kept alive here.
+     */
+    public GameSnapshot getLatestSnapshot() {
+        return latestSnapshot;
+    }
+
+    // The shutdown method stops the GameLoop after the commands that were sent before it are applied.
+    public void shutdown() {
+        commands.add(new Command(CommandType.SHUTDOWN, ChangeSet.NO_TILE, null, 0));
+    }
+
+    private void send(CommandType type, int tileID) {
+        commands.add(new Command(type, tileID, null, 0));
+    }
+
+    private void run() {
+        List<Command> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        try {
+            while (true) {
+                batch.add(commands.take());
+                commands.drainTo(batch, MAX_BATCH_SIZE - 1);
+                for (Command command : batch) {
+                    if (command.type == CommandType.SHUTDOWN) {
+                        publish();
+                        return;
+                    }
+                    apply(command);
+                }
+                publish();
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*
+    The apply method applies a single command to the GameSession. Starting a new game first publishes what is left of
+    the old one. A command that fails is reported and skipped, so the loop keeps running.
+     */
+    private void apply(Command command) {
+        if (command.type == CommandType.NEW_GAME) {
+            publish();
+            gameSession = command.gameSession;
+            gameID = command.gameID;
+            numberOfCommands = 0;
+            publishedState = null;
+            unpublished = true;
+            return;
+        }
+        if (gameSession == null) return;
+        if (command.type == CommandType.FULL_SNAPSHOT) {
+            fullSnapshotRequested = true;
+            unpublished = true;
+            return;
+        }
+        numberOfCommands++;
+        unpublished = true;
+        try {
+            addChanges(execute(command));
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private ChangeSet execute(Command command) {
+        switch (command.type) {
+            case OPEN:
+                if (gameSession.isRevealed(command.tileID)) return gameSession.chord(command.tileID);
+                return gameSession.reveal(command.tileID);
+            case REVEAL:
+                return gameSession.reveal(command.tileID);
+            case FLAG:
+                return gameSession.flag(command.tileID);
+            case CHORD:
+                return gameSession.chord(command.tileID);
+            default:
+                throw new IllegalArgumentException("Unknown command " + command.type);
+        }
+    }
+
+    /*
+    The addChanges method adds the tiles of a ChangeSet to the changed tiles of the batch. The buffer doubles when a few
+    tiles at a time don't fit, but a single large reveal only makes it as large as needed, so revealing most of a board
+    of a hundred million tiles doesn't take twice the memory the reveal itself needs.
+     */
+    private void addChanges(ChangeSet changeSet) {
+        int numberOfChanges = changeSet.size() + (changeSet.getToggledFlagTileID() == ChangeSet.NO_TILE ? 0 : 1);
+        int required = numberOfChangedTiles + numberOfChanges;
+        if (required > changedTileIDs.length) {
+            changedTileIDs = Arrays.copyOf(changedTileIDs, Math.max(required, changedTileIDs.length * 2));
+        }
+        for (int i = 0; i < changeSet.size(); i++) {
+            changedTileIDs[numberOfChangedTiles++] = changeSet.getTileID(i);
+        }
+        if (changeSet.getToggledFlagTileID() != ChangeSet.NO_TILE) {
+            changedTileIDs[numberOfChangedTiles++] = changeSet.getToggledFlagTileID();
+        }
+    }
+
+    /*
+    The publish method creates a snapshot of everything that changed since the previous one. The tile codes are read
+    after the whole batch was applied, so a tile that changed more than once simply gets its final code every time. A
+    full snapshot also holds the code of every tile, and the hidden bombs of a lost game even when the previous
+    snapshot already had them. A listener that fails is reported, the same as a command that fails, so it can't stop
+    the loop.
+
+    The buffer of changed tiles is handed to the snapshot instead of copied, and the loop starts over with a small one,
+    so after a large reveal neither the loop nor the latest snapshot holds on to all those tiles.
+     */
+    private void publish() {
+        if (!unpublished) return;
+        int[] tileIDs = changedTileIDs;
+        changedTileIDs = new int[INITIAL_CHANGED_TILES];
+        byte[] tileCodes = new byte[numberOfChangedTiles];
+        for (int i = 0; i < numberOfChangedTiles; i++) {
+            tileCodes[i] = (byte) getTileCode(tileIDs[i]);
+        }
+        GameState state = gameSession.getState();
+        int[] hiddenBombTileIDs = state == GameState.LOST && (publishedState != GameState.LOST || fullSnapshotRequested)
+                ? getHiddenBombTileIDs() : new int[0];
+        byte[] allTileCodes = fullSnapshotRequested ? getAllTileCodes() : null;
+        GameSnapshot snapshot = new GameSnapshot(gameID, numberOfCommands, state, gameSession.getRemainingTiles(),
+                tileIDs, tileCodes, hiddenBombTileIDs, allTileCodes);
+        publishedState = state;
+        numberOfChangedTiles = 0;
+        unpublished = false;
+        fullSnapshotRequested = false;
+        latestSnapshot = snapshot.withoutChanges();
+        try {
+            listener.accept(snapshot);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private int getTileCode(int tileID) {
+        if (gameSession.isRevealed(tileID)) {
+            GameField gameField = gameSession.getGameField();
+            if (gameField.isBomb(tileID)) return GameSnapshot.REVEALED_BOMB;
+            return GameSnapshot.REVEALED + gameField.getAdjacentBombs(tileID);
+        }
+        return gameSession.isFlagged(tileID) ? GameSnapshot.FLAGGED : GameSnapshot.HIDDEN;
+    }
+
+    // getAllTileCodes returns the tile codes of all tiles, two to a byte, the even tileID in the low 4 bits
+    private byte[] getAllTileCodes() {
+        int numberOfTiles = gameSession.getBoardSpec().getNumberOfTiles();
+        byte[] allTileCodes = new byte[(numberOfTiles + 1) / 2];
+        for (int tileID = 0; tileID < numberOfTiles; tileID++) {
+            int tileCode = getTileCode(tileID);
+            if (tileCode == GameSnapshot.HIDDEN) continue;
+            allTileCodes[tileID >>> 1] |= (byte) (tileCode << ((tileID & 1) << 2));
+        }
+        return allTileCodes;
+    }
+
+    // getHiddenBombTileIDs returns the bombs that are not revealed, a word of 64 tiles at a time
+    private int[] getHiddenBombTileIDs() {
+        BitBoard board = gameSession.getGameField().getBoard();
+        long[] bombWords = board.getBombWords();
+        long[] revealedWords = board.getRevealedWords();
+        int[] hiddenBombTileIDs = new int[board.getNumberOfBombs()];
+        int size = 0;
+        for (int word = 0; word < bombWords.length; word++) {
+            for (long hiddenBombs = bombWords[word] & ~revealedWords[word]; hiddenBombs != 0;
+                 hiddenBombs &= hiddenBombs - 1) {
+                hiddenBombTileIDs[size++] = (word << 6) + Long.numberOfTrailingZeros(hiddenBombs);
+            }
+        }
+        return Arrays.copyOf(hiddenBombTileIDs, size);
+    }
+}
@@ -0,0 +1,187 @@
+package com.minesweeper.gamefield;
+
+import com.minesweeper.GameUtils.BoardSpec;
+import com.minesweeper.GameUtils.DifficultyLevel;
+import com.minesweeper.GameUtils.GameState;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+The GameSession class contains the rules of a single game of Mine Sweeper, without any user interface. The rules used
+to live in the Swing components of the GameInterface, so the only way to play was by clicking in a JFrame. A GameSession
+can be played by any code: the GameInterface, which is now only a view on top of it, but also a simulation running on
+a server without a screen.
+
+Every action returns a ChangeSet describing what changed, so the caller never has to compare the game field before and
+after the action. Just like before, the game field is only created on the first reveal, so the first revealed tile and
+its adjacent tiles can never contain a bomb. Flags placed before that are remembered in a small bitset, and copied to
+the game field once it exists. How the game field is created can be changed by passing a GameFieldFactory.
+
+A GameSession can be played on any BoardSpec. The constructors taking a DifficultyLevel use its BoardSpec.
+
+A GameSession is not thread safe, it should only be used by one thread at a time.
+ */
+
+public class GameSession {
+
+    private final BoardSpec boardSpec;
+    private final RandomStrategy random;
+    private final GameFieldFactory gameFieldFactory;
+    private final long[] flagsBeforeStart;
+    private GameField gameField;
+    private GameState state;
+
+    public GameSession(DifficultyLevel difficultyLevel) {
+        this(difficultyLevel.getBoardSpec());
+    }
+
+    public GameSession(DifficultyLevel difficultyLevel, long seed) {
+        this(difficultyLevel.getBoardSpec(), seed);
+    }
+
+    public GameSession(DifficultyLevel difficultyLevel, RandomStrategy random) {
+        this(difficultyLevel.getBoardSpec(), random);
+    }
+
+    public GameSession(BoardSpec boardSpec) {
+        this(boardSpec, RandomStrategy.splittable(ThreadLocalRandom.current().nextLong()));
+    }
+
+    public GameSession(BoardSpec boardSpec, long seed) {
+        this(boardSpec, RandomStrategy.splittable(seed));
+    }
+
+    public GameSession(BoardSpec boardSpec, RandomStrategy random) {
+        this(boardSpec, random, GameField::restartGame);
+    }
+
+    public GameSession(BoardSpec boardSpec, RandomStrategy random, GameFieldFactory gameFieldFactory) {
+        this.boardSpec = boardSpec;
+        this.random = random;
+        this.gameFieldFactory = gameFieldFactory;
+        this.flagsBeforeStart = new long[BitBoard.wordsFor(boardSpec.getNumberOfTiles())];
+        this.state = GameState.NOT_STARTED;
+    }
+
+    /*
+    The reveal method reveals a tile. On the first reveal the game field is created first. Revealing a flagged or an
+    already revealed tile changes nothing, and after the game is finished no tile can be revealed anymore.
+     */
+    public ChangeSet reveal(int tileID) {
+        if (state.isFinished()) return ChangeSet.unchanged(state);
+        if (state == GameState.NOT_STARTED) {
+            if (isSet(flagsBeforeStart, tileID)) return ChangeSet.unchanged(state);
+            startGame(tileID);
+        }
+        RevealDelta revealDelta = gameField.reveal(tileID);
+        updateState(revealDelta);
+        return new ChangeSet(revealDelta.getTileIDArray(), revealDelta.size(), ChangeSet.NO_TILE, state);
+    }
+
+    /*
+    The flag method places a flag on a tile, or removes it when the tile is already flagged. Revealed tiles can't be
+    flagged.
+     */
+    public ChangeSet flag(int tileID) {
+        if (state.isFinished()) return ChangeSet.unchanged(state);
+        if (state == GameState.NOT_STARTED) {
+            flagsBeforeStart[tileID >>> 6] ^= 1L << tileID;
+        } else {
+            if (gameField.isRevealed(tileID)) return ChangeSet.unchanged(state);
+            gameField.getBoard().toggleFlag(tileID);
+        }
+        return new ChangeSet(new int[0], 0, tileID, state);
+    }
+
+    /*
+    The chord method reveals all adjacent tiles of a revealed number, when the player has placed exactly as many
+    flags around it as the number says. This is a shortcut experienced players use a lot. If one of the flags is wrong,
+    a bomb gets revealed and the game is lost, just like when the tiles are revealed one by one.
+     */
+    public ChangeSet chord(int tileID) {
+        if (state != GameState.PLAYING || !gameField.isRevealed(tileID)) return ChangeSet.unchanged(state);
+        int numberOfAdjacentBombs = gameField.getAdjacentBombs(tileID);
+        if (numberOfAdjacentBombs == 0) return ChangeSet.unchanged(state);
+
+        int[] adjacentTileIDs = new int[8];
+        int numberOfAdjacentTiles = getNeighbourTable().getAdjacentTileIDs(tileID, adjacentTileIDs);
+        int numberOfAdjacentFlags = 0;
+        for (int i = 0; i < numberOfAdjacentTiles; i++) {
+            if (gameField.isFlagged(adjacentTileIDs[i])) numberOfAdjacentFlags++;
+        }
+        if (numberOfAdjacentFlags != numberOfAdjacentBombs) return ChangeSet.unchanged(state);
+
+        int[] revealedTileIDs = new int[0];
+        int size = 0;
+        for (int i = 0; i < numberOfAdjacentTiles && !state.isFinished(); i++) {
+            RevealDelta revealDelta = gameField.reveal(adjacentTileIDs[i]);
+            if (revealDelta.isEmpty()) continue;
+            if (size + revealDelta.size() > revealedTileIDs.length) {
+                revealedTileIDs = Arrays.copyOf(revealedTileIDs, (size + revealDelta.size()) * 2);
+            }
+            for (int j = 0; j < revealDelta.size(); j++) {
+                revealedTileIDs[size++] = revealDelta.getTileID(j);
+            }
+            updateState(revealDelta);
+        }
+        return new ChangeSet(revealedTileIDs, size, ChangeSet.NO_TILE, state);
+    }
+
+    public GameState getState() {
+        return state;
+    }
+
+    // getRemainingTiles returns the number of tiles that still have to be revealed to win the game
+    public int getRemainingTiles() {
+        int tilesToReveal = boardSpec.getNumberOfTiles() - boardSpec.getNumberOfBombs();
+        if (gameField == null) return tilesToReveal;
+        return tilesToReveal - gameField.getBoard().getNumberOfRevealedTiles();
+    }
+
+    public boolean isFlagged(int tileID) {
+        if (gameField == null) return isSet(flagsBeforeStart, tileID);
+        return gameField.isFlagged(tileID);
+    }
+
+    public boolean isRevealed(int tileID) {
+        return gameField != null && gameField.isRevealed(tileID);
+    }
+
+    // getGameField returns the game field of this session, or null when the first tile has not been revealed yet
+    public GameField getGameField() {
+        return gameField;
+    }
+
+    // getDifficultyLevel returns the DifficultyLevel of this session, or null when it is played on a custom board
+    public DifficultyLevel getDifficultyLevel() {
+        return boardSpec.getDifficultyLevel();
+    }
+
+    public BoardSpec getBoardSpec() {
+        return boardSpec;
+    }
+
+    private void startGame(int tileID) {
+        gameField = gameFieldFactory.createGameField(boardSpec, tileID, random);
+        for (int word = 0; word < flagsBeforeStart.length; word++) {
+            for (long flags = flagsBeforeStart[word]; flags != 0; flags &= flags - 1) {
+                gameField.getBoard().toggleFlag((word << 6) + Long.numberOfTrailingZeros(flags));
+            }
+        }
+        state = GameState.PLAYING;
+    }
+
+    private void updateState(RevealDelta revealDelta) {
+        if (revealDelta.isBombHit()) state = GameState.LOST;
+        else if (getRemainingTiles() == 0) state = GameState.WON;
+    }
+
+    private NeighbourTable getNeighbourTable() {
+        return NeighbourTable.forSize(gameField.getTilesPerRow(), gameField.getNumberOfRows());
+    }
+
+    private static boolean isSet(long[] bits, int tileID) {
+        return (bits[tileID >>> 6] & (1L << tileID)) != 0;
+    }
+}
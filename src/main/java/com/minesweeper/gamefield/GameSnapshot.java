@@ -0,0 +1,119 @@
+package com.minesweeper.gamefield;
+
+import com.minesweeper.GameUtils.GameState;
+
+/*
+The GameSnapshot class is what a GameLoop publishes after it has applied a batch of commands. It can't be changed
+after it is created, so it can be handed from the thread of the GameLoop to any other thread, like the event dispatch
+thread, without any locking.
+
+A snapshot holds the state of the game, the number of tiles still to reveal, and what the tiles changed by the batch
+look like now. Copying the whole game field for every snapshot would make a click on a large board as expensive as the
+board is large, so a view starts with all tiles hidden, and applies the changed tiles of every snapshot in turn. When
+the game is lost, the snapshot also holds the bombs that are still hidden, in ascending order, so the view can show
+them without reading the game field. A view that missed snapshots asks the GameLoop for a full snapshot, which also
+holds the tile codes of all tiles, see isFull and copyAllTileCodes.
+
+What a tile looks like is given as a tile code: HIDDEN, FLAGGED, REVEALED_BOMB, or REVEALED plus the number of adjacent
+bombs of a revealed safe tile. The codes fit in 4 bits.
+
+Every game started by a GameLoop gets its own gameID, and every snapshot tells how many commands were applied to the
+game so far, so a listener can tell snapshots of an old game apart, and a replay can tell where it is.
+ */
+
+public final class GameSnapshot {
+
+    public static final int HIDDEN = 0;
+    public static final int FLAGGED = 1;
+    public static final int REVEALED_BOMB = 2;
+    // a revealed safe tile with n adjacent bombs has code REVEALED + n
+    public static final int REVEALED = 3;
+
+    private static final int[] NO_TILE_IDS = new int[0];
+    private static final byte[] NO_TILE_CODES = new byte[0];
+
+    private final long gameID;
+    private final long numberOfCommands;
+    private final GameState state;
+    private final int remainingTiles;
+    // the changed tiles are the first tileCodes.length entries, the GameLoop hands over its buffer without copying
+    private final int[] changedTileIDs;
+    private final byte[] tileCodes;
+    private final int[] hiddenBombTileIDs;
+    // the tile codes of all tiles, two to a byte, or null when this is not a full snapshot
+    private final byte[] allTileCodes;
+
+    GameSnapshot(long gameID, long numberOfCommands, GameState state, int remainingTiles, int[] changedTileIDs,
+                 byte[] tileCodes, int[] hiddenBombTileIDs, byte[] allTileCodes) {
+        this.gameID = gameID;
+        this.numberOfCommands = numberOfCommands;
+        this.state = state;
+        this.remainingTiles = remainingTiles;
+        this.changedTileIDs = changedTileIDs;
+        this.tileCodes = tileCodes;
+        this.hiddenBombTileIDs = hiddenBombTileIDs;
+        this.allTileCodes = allTileCodes;
+    }
+
+    // withoutChanges returns a snapshot with the same state as this one, but without any tiles
+    GameSnapshot withoutChanges() {
+        return new GameSnapshot(gameID, numberOfCommands, state, remainingTiles, NO_TILE_IDS, NO_TILE_CODES,
+                NO_TILE_IDS, null);
+    }
+
+    public long getGameID() {
+        return gameID;
+    }
+
+    // getNumberOfCommands returns the number of commands applied to this game, including the ones of this snapshot
+    public long getNumberOfCommands() {
+        return numberOfCommands;
+    }
+
+    public GameState getState() {
+        return state;
+    }
+
+    public int getRemainingTiles() {
+        return remainingTiles;
+    }
+
+    // size returns the number of changed tiles, a tile that changed twice in the batch may be in there twice
+    public int size() {
+        return tileCodes.length;
+    }
+
+    public int getTileID(int index) {
+        if (index >= tileCodes.length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + tileCodes.length);
+        }
+        return changedTileIDs[index];
+    }
+
+    // getTileCode returns what the changed tile at the index looks like after the batch
+    public int getTileCode(int index) {
+        return tileCodes[index];
+    }
+
+    // getNumberOfHiddenBombs returns the number of bombs that were not revealed, which is 0 unless the game was lost
+    public int getNumberOfHiddenBombs() {
+        return hiddenBombTileIDs.length;
+    }
+
+    public int getHiddenBombTileID(int index) {
+        return hiddenBombTileIDs[index];
+    }
+
+    // isFull returns whether this snapshot holds the tile codes of all tiles, because requestFullSnapshot was called
+    public boolean isFull() {
+        return allTileCodes != null;
+    }
+
+    /*
+    The copyAllTileCodes method copies the tile codes of all tiles of a full snapshot into the given array, two to a
+    byte, the tile with the even tileID in the low 4 bits. The array must hold at least (number of tiles + 1) / 2 bytes.
+     */
+    public void copyAllTileCodes(byte[] destination) {
+        System.arraycopy(allTileCodes, 0, destination, 0, allTileCodes.length);
+    }
+}
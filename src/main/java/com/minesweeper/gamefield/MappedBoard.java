@@ -0,0 +1,269 @@
+package com.minesweeper.gamefield;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static com.minesweeper.gamefield.CreateGameFieldFunctions.getExcludedIDs;
+import static com.minesweeper.gamefield.CreateGameFieldFunctions.placeRandomBombs;
+
+/*
+The MappedBoard class is a game field that lives in a file instead of on the Java heap. A BitBoard needs about 12 bits
+per tile on the heap, so a board of a billion tiles would need a heap of 1.5 GB before the game even starts. The
+MappedBoard maps a file into memory with FileChannel.map instead. The operating system loads the parts of the file that
+are used into its page cache, and writes changed parts back on its own, so the board doesn't count towards the heap,
+and only the part the player is working on takes up actual memory.
+
+Every tile takes 4 bits, two tiles per byte, tile n in the low half of byte n / 2 when n is even and in the high half
+when it is odd. The 4 bits hold one of 14 codes: a hidden tile is a bomb or not, and flagged or not, which makes 4
+codes, and a revealed tile is either a bomb or a safe tile with 0 to 8 adjacent bombs, which makes 10 more. The number
+of adjacent bombs is stored when a tile is revealed, because that is when it is needed. For hidden tiles it is counted
+from the neighbours on request, counting them all up front would mean reading the whole file 8 times while creating it.
+A new file is filled with zeros, which is the code of a hidden tile without a bomb, so only the bombs need writing.
+
+The file starts with a header holding the shape of the board and the number of bombs, revealed tiles and flags. The
+state of the game is always in the file itself, so there is no separate save step: a game is resumed by opening the
+file again, which only maps it and reads the header, however large the board is. Changes are in the page cache as soon
+as they are made, so they survive the game stopping; force writes them to the disk, to survive the computer stopping
+as well. A mapping can't be larger than 2 GB, which is enough, because a board can't have more tiles than the largest
+int, the tileIDs are ints.
+
+A MappedBoard is not thread safe, it should only be used by one thread at a time.
+ */
+
+public class MappedBoard implements Board, Closeable {
+
+    private static final int MAGIC = 0x4D534D42;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int TILES_PER_ROW_OFFSET = 8;
+    private static final int NUMBER_OF_ROWS_OFFSET = 12;
+    private static final int NUMBER_OF_BOMBS_OFFSET = 16;
+    private static final int REVEALED_TILES_OFFSET = 20;
+    private static final int FLAGS_OFFSET = 24;
+
+    private static final int HIDDEN = 0;
+    private static final int HIDDEN_BOMB = 1;
+    private static final int FLAGGED = 2;
+    private static final int FLAGGED_BOMB = 3;
+    // a revealed safe tile with n adjacent bombs has code REVEALED + n
+    private static final int REVEALED = 4;
+    private static final int REVEALED_BOMB = 13;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int tilesPerRow;
+    private final int numberOfRows;
+    private final int numberOfTiles;
+    private final NeighbourTable neighbourTable;
+    private final int[] adjacentTileIDs = new int[8];
+
+    private MappedBoard(FileChannel channel, MappedByteBuffer buffer) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.tilesPerRow = buffer.getInt(TILES_PER_ROW_OFFSET);
+        this.numberOfRows = buffer.getInt(NUMBER_OF_ROWS_OFFSET);
+        this.numberOfTiles = tilesPerRow * numberOfRows;
+        this.neighbourTable = NeighbourTable.forSize(tilesPerRow, numberOfRows);
+    }
+
+    /*
+    The create method creates a new board in the given file, replacing whatever was in it, and places the bombs with
+    the same sampling as a normal game field, keeping the clicked tile and its adjacent tiles free.
+     */
+    public static MappedBoard create(Path file, int tilesPerRow, int numberOfRows, int numberOfBombs, int tileID,
+                                     RandomStrategy random) throws IOException {
+        long numberOfTiles = (long) tilesPerRow * numberOfRows;
+        if (tilesPerRow < 1 || numberOfRows < 1 || numberOfTiles > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("A mapped board can have at most " + Integer.MAX_VALUE
+                    + " tiles, not " + tilesPerRow + "x" + numberOfRows);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_SIZE + (numberOfTiles + 1) / 2);
+            buffer.putInt(MAGIC_OFFSET, MAGIC);
+            buffer.putInt(VERSION_OFFSET, VERSION);
+            buffer.putInt(TILES_PER_ROW_OFFSET, tilesPerRow);
+            buffer.putInt(NUMBER_OF_ROWS_OFFSET, numberOfRows);
+            buffer.putInt(NUMBER_OF_BOMBS_OFFSET, numberOfBombs);
+            MappedBoard board = new MappedBoard(channel, buffer);
+            placeRandomBombs(board.numberOfTiles, numberOfBombs, getExcludedIDs(board.neighbourTable, tileID), random,
+                    board::isBomb, bombID -> board.setCode(bombID, HIDDEN_BOMB));
+            return board;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // The open method resumes a board created earlier. The file must not be opened by two MappedBoards at once.
+    public static MappedBoard open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < HEADER_SIZE) throw new IOException(file + " is not a mapped board");
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            if (buffer.getInt(MAGIC_OFFSET) != MAGIC) throw new IOException(file + " is not a mapped board");
+            if (buffer.getInt(VERSION_OFFSET) != VERSION) {
+                throw new IOException(file + " has version " + buffer.getInt(VERSION_OFFSET) + ", expected " + VERSION);
+            }
+            long numberOfTiles = (long) buffer.getInt(TILES_PER_ROW_OFFSET) * buffer.getInt(NUMBER_OF_ROWS_OFFSET);
+            if (channel.size() < HEADER_SIZE + (numberOfTiles + 1) / 2) throw new IOException(file + " is truncated");
+            return new MappedBoard(channel, buffer);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /*
+    The reveal method works like the RevealEngine, but a tile at a time, because the tiles are not stored as bitsets.
+    When the revealed tile has no adjacent bombs, its neighbours are revealed, and the neighbours without adjacent bombs
+    are put on a stack to reveal their neighbours in turn. Flagged tiles are never revealed.
+     */
+    public RevealDelta reveal(int tileID) {
+        int code = getCode(tileID);
+        if (code == HIDDEN_BOMB) {
+            setCode(tileID, REVEALED_BOMB);
+            addRevealedTiles(1);
+            return new RevealDelta(new int[]{tileID}, 1, true);
+        }
+        if (code != HIDDEN) return RevealDelta.EMPTY;
+        int numberOfAdjacentBombs = countAdjacentBombs(tileID);
+        setCode(tileID, REVEALED + numberOfAdjacentBombs);
+        int[] revealedTileIDs = new int[]{tileID};
+        int size = 1;
+        if (numberOfAdjacentBombs == 0) {
+            int[] stack = new int[16];
+            int stackSize = 0;
+            stack[stackSize++] = tileID;
+            int[] neighbours = new int[8];
+            while (stackSize > 0) {
+                int numberOfNeighbours = neighbourTable.getAdjacentTileIDs(stack[--stackSize], neighbours);
+                for (int i = 0; i < numberOfNeighbours; i++) {
+                    int neighbour = neighbours[i];
+                    if (getCode(neighbour) != HIDDEN) continue;
+                    int neighbourCount = countAdjacentBombs(neighbour);
+                    setCode(neighbour, REVEALED + neighbourCount);
+                    if (size == revealedTileIDs.length) revealedTileIDs = Arrays.copyOf(revealedTileIDs, size * 2);
+                    revealedTileIDs[size++] = neighbour;
+                    if (neighbourCount == 0) {
+                        if (stackSize == stack.length) stack = Arrays.copyOf(stack, stackSize * 2);
+                        stack[stackSize++] = neighbour;
+                    }
+                }
+            }
+        }
+        addRevealedTiles(size);
+        return new RevealDelta(revealedTileIDs, size, false);
+    }
+
+    // The toggleFlag method places or removes a flag and returns whether the tile is flagged afterwards.
+    public boolean toggleFlag(int tileID) {
+        int code = getCode(tileID);
+        if (code >= REVEALED) return false;
+        int flipped = code ^ FLAGGED;
+        setCode(tileID, flipped);
+        buffer.putInt(FLAGS_OFFSET, getNumberOfFlags() + (flipped >= FLAGGED ? 1 : -1));
+        return flipped >= FLAGGED;
+    }
+
+    // The force method writes all changes to the disk, and returns when they are written.
+    public void force() {
+        buffer.force();
+    }
+
+    /*
+    The close method writes all changes to the disk and closes the file. The mapping itself stays until the buffer is
+    garbage collected, Java has no way to remove it earlier, so the board must not be used after closing it.
+     */
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    @Override
+    public int getNumberOfTiles() {
+        return numberOfTiles;
+    }
+
+    @Override
+    public int getNumberOfBombs() {
+        return buffer.getInt(NUMBER_OF_BOMBS_OFFSET);
+    }
+
+    @Override
+    public int getTilesPerRow() {
+        return tilesPerRow;
+    }
+
+    @Override
+    public int getNumberOfRows() {
+        return numberOfRows;
+    }
+
+    @Override
+    public boolean isBomb(int tileID) {
+        int code = getCode(tileID);
+        return code == HIDDEN_BOMB || code == FLAGGED_BOMB || code == REVEALED_BOMB;
+    }
+
+    @Override
+    public boolean isRevealed(int tileID) {
+        return getCode(tileID) >= REVEALED;
+    }
+
+    @Override
+    public boolean isFlagged(int tileID) {
+        int code = getCode(tileID);
+        return code == FLAGGED || code == FLAGGED_BOMB;
+    }
+
+    @Override
+    public int getAdjacentBombs(int tileID) {
+        int code = getCode(tileID);
+        if (code >= REVEALED && code < REVEALED_BOMB) return code - REVEALED;
+        return countAdjacentBombs(tileID);
+    }
+
+    public int getNumberOfRevealedTiles() {
+        return buffer.getInt(REVEALED_TILES_OFFSET);
+    }
+
+    public int getNumberOfFlags() {
+        return buffer.getInt(FLAGS_OFFSET);
+    }
+
+    private int countAdjacentBombs(int tileID) {
+        int numberOfAdjacentTiles = neighbourTable.getAdjacentTileIDs(tileID, adjacentTileIDs);
+        int numberOfAdjacentBombs = 0;
+        for (int i = 0; i < numberOfAdjacentTiles; i++) {
+            if (isBomb(adjacentTileIDs[i])) numberOfAdjacentBombs++;
+        }
+        return numberOfAdjacentBombs;
+    }
+
+    private void addRevealedTiles(int numberOfTiles) {
+        buffer.putInt(REVEALED_TILES_OFFSET, getNumberOfRevealedTiles() + numberOfTiles);
+    }
+
+    private int getCode(int tileID) {
+        int tiles = buffer.get(HEADER_SIZE + (tileID >>> 1));
+        return (tiles >>> ((tileID & 1) << 2)) & 0xF;
+    }
+
+    private void setCode(int tileID, int code) {
+        int index = HEADER_SIZE + (tileID >>> 1);
+        int shift = (tileID & 1) << 2;
+        int tiles = buffer.get(index) & ~(0xF << shift) | code << shift;
+        buffer.put(index, (byte) tiles);
+    }
+}
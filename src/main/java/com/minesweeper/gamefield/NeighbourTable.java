@@ -0,0 +1,161 @@
+package com.minesweeper.gamefield;
+
+import com.minesweeper.GameUtils.BoardSpec;
+import com.minesweeper.GameUtils.DifficultyLevel;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+The NeighbourTable class holds the IDs of the adjacent tiles of every tile on a board of a certain shape. Previously
+the adjacent tileIDs were calculated on every call, and returned in a new List of Integers which could also contain
+IDs that were not on the game field. Callers then had to filter those out themselves.
+
+The table is built once per board shape and only contains valid IDs. It is stored in two arrays, which is called the
+compressed sparse row format: the neighbours array holds the adjacent tileIDs of all tiles after one another, and the
+offsets array holds, for every tile, the index in the neighbours array where its adjacent tileIDs start. The adjacent
+tileIDs of tile n can therefore be found from offsets[n] up to offsets[n + 1].
+
+Tables are cached in a ConcurrentHashMap, keyed by the shape of the board, so every DifficultyLevel (or custom size)
+shares a single table. The computeIfAbsent method makes sure a table is only built once, even when multiple threads ask
+for the same shape at the same time. The map boxes its key and the lambda captures the size, so every lookup in it
+allocates a little. That added up in the benchmarks, so the tables of the DifficultyLevels are also kept in an array
+indexed by the DifficultyLevel, which makes looking them up free. A table only has final fields, so a thread that
+finds one in the array always sees it completely built, and at worst two threads store the same table twice.
+
+The table takes 36 bytes per tile, which is nothing for the difficulty levels, but 3.6 gigabytes for a custom board of
+10000 by 10000 tiles. Boards with more than DENSE_TABLE_LIMIT tiles therefore don't get the arrays at all. Their
+adjacent tileIDs are calculated from the row and column of the tile on every call instead, which is a little slower,
+but takes no memory.
+ */
+
+public final class NeighbourTable {
+
+    private static final int DENSE_TABLE_LIMIT = 1 << 20;
+    private static final Map<Long, NeighbourTable> tables = new ConcurrentHashMap<>();
+    private static final NeighbourTable[] difficultyTables = new NeighbourTable[DifficultyLevel.values().length];
+
+    private final int tilesPerRow;
+    private final int numberOfRows;
+    private final int[] offsets;
+    private final int[] neighbours;
+
+    private NeighbourTable(int tilesPerRow, int numberOfRows) {
+        this.tilesPerRow = tilesPerRow;
+        this.numberOfRows = numberOfRows;
+        int numberOfTiles = tilesPerRow * numberOfRows;
+        if (numberOfTiles > DENSE_TABLE_LIMIT) {
+            this.offsets = null;
+            this.neighbours = null;
+            return;
+        }
+        this.offsets = new int[numberOfTiles + 1];
+        this.neighbours = new int[countNeighbours(tilesPerRow, numberOfRows)];
+        fillTable();
+    }
+
+    public static NeighbourTable forDifficulty(DifficultyLevel difficultyLevel) {
+        NeighbourTable table = difficultyTables[difficultyLevel.ordinal()];
+        if (table == null) {
+            table = forSize(difficultyLevel.getFieldLengthInTiles(), difficultyLevel.getFieldWidthInTiles());
+            difficultyTables[difficultyLevel.ordinal()] = table;
+        }
+        return table;
+    }
+
+    public static NeighbourTable forBoardSpec(BoardSpec boardSpec) {
+        if (boardSpec.isPreset()) return forDifficulty(boardSpec.getDifficultyLevel());
+        return forSize(boardSpec.getFieldLengthInTiles(), boardSpec.getFieldWidthInTiles());
+    }
+
+    public static NeighbourTable forSize(int tilesPerRow, int numberOfRows) {
+        long key = ((long) tilesPerRow << 32) | numberOfRows;
+        return tables.computeIfAbsent(key, k -> new NeighbourTable(tilesPerRow, numberOfRows));
+    }
+
+    /*
+    The countNeighbours method determines the length of the neighbours array up front, so the array never has to grow.
+    Every pair of horizontally, vertically or diagonally adjacent tiles is counted twice, once for each tile.
+     */
+    private static int countNeighbours(int tilesPerRow, int numberOfRows) {
+        long horizontal = (long) (tilesPerRow - 1) * numberOfRows;
+        long vertical = (long) tilesPerRow * (numberOfRows - 1);
+        long diagonal = 2L * (tilesPerRow - 1) * (numberOfRows - 1);
+        return (int) (2 * (horizontal + vertical + diagonal));
+    }
+
+    private void fillTable() {
+        int index = 0;
+        int tileID = 0;
+        for (int row = 0; row < numberOfRows; row++) {
+            for (int column = 0; column < tilesPerRow; column++, tileID++) {
+                offsets[tileID] = index;
+                for (int rowOffset = -1; rowOffset <= 1; rowOffset++) {
+                    int adjacentRow = row + rowOffset;
+                    if (adjacentRow < 0 || adjacentRow >= numberOfRows) continue;
+                    for (int columnOffset = -1; columnOffset <= 1; columnOffset++) {
+                        int adjacentColumn = column + columnOffset;
+                        if (adjacentColumn < 0 || adjacentColumn >= tilesPerRow) continue;
+                        if (rowOffset == 0 && columnOffset == 0) continue;
+                        neighbours[index++] = adjacentRow * tilesPerRow + adjacentColumn;
+                    }
+                }
+            }
+        }
+        offsets[tileID] = index;
+    }
+
+    /*
+    The getAdjacentTileIDs method copies the adjacent tileIDs of a tile into the given array, which must have room for
+    at least 8 IDs, and returns how many were copied. The caller can reuse the same array for every tile, so visiting
+    the neighbours of a tile never allocates anything.
+     */
+    public int getAdjacentTileIDs(int tileID, int[] adjacentTileIDs) {
+        if (offsets == null) return calculateAdjacentTileIDs(tileID, adjacentTileIDs);
+        int start = offsets[tileID];
+        int count = offsets[tileID + 1] - start;
+        System.arraycopy(neighbours, start, adjacentTileIDs, 0, count);
+        return count;
+    }
+
+    // calculateAdjacentTileIDs finds the adjacent tileIDs of boards too large for the arrays, in the same order
+    private int calculateAdjacentTileIDs(int tileID, int[] adjacentTileIDs) {
+        int row = tileID / tilesPerRow;
+        int column = tileID - row * tilesPerRow;
+        int firstRow = Math.max(0, row - 1);
+        int lastRow = Math.min(numberOfRows - 1, row + 1);
+        int firstColumn = Math.max(0, column - 1);
+        int lastColumn = Math.min(tilesPerRow - 1, column + 1);
+        int count = 0;
+        for (int adjacentRow = firstRow; adjacentRow <= lastRow; adjacentRow++) {
+            for (int adjacentColumn = firstColumn; adjacentColumn <= lastColumn; adjacentColumn++) {
+                int adjacentTileID = adjacentRow * tilesPerRow + adjacentColumn;
+                if (adjacentTileID != tileID) adjacentTileIDs[count++] = adjacentTileID;
+            }
+        }
+        return count;
+    }
+
+    public int getNumberOfAdjacentTiles(int tileID) {
+        if (offsets == null) {
+            int row = tileID / tilesPerRow;
+            int column = tileID - row * tilesPerRow;
+            int rows = Math.min(numberOfRows - 1, row + 1) - Math.max(0, row - 1) + 1;
+            int columns = Math.min(tilesPerRow - 1, column + 1) - Math.max(0, column - 1) + 1;
+            return rows * columns - 1;
+        }
+        return offsets[tileID + 1] - offsets[tileID];
+    }
+
+    public int getTilesPerRow() {
+        return tilesPerRow;
+    }
+
+    public int getNumberOfRows() {
+        return numberOfRows;
+    }
+
+    public int getNumberOfTiles() {
+        return tilesPerRow * numberOfRows;
+    }
+}
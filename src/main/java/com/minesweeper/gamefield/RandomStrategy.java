@@ -0,0 +1,31 @@
+package com.minesweeper.gamefield;
+
+/*
+The RandomStrategy interface decides where the random numbers for placing the bombs come from. The bombs used to be
+placed with Math.random, which uses a single Random object shared by the whole application. That made it impossible to
+create the same board twice, and threads generating boards at the same time all had to wait for that one object.
+
+A RandomStrategy is created from a seed, so the same seed, together with the same first click, always results in the
+same board. It is not thread safe, every thread should use its own strategy, which can be obtained with split. The
+static factory methods create the two strategies that are available.
+ */
+
+public interface RandomStrategy {
+
+    // nextInt returns a random int between 0 (inclusive) and bound (exclusive), bound must be positive
+    int nextInt(int bound);
+
+    // nextLong returns a random long, for example to use as the seed of another game field
+    long nextLong();
+
+    // split returns a new, independent RandomStrategy, which can safely be handed to another thread
+    RandomStrategy split();
+
+    static RandomStrategy splittable(long seed) {
+        return new SplittableRandomStrategy(seed);
+    }
+
+    static RandomStrategy xoroshiro(long seed) {
+        return new XoroshiroRandomStrategy(seed);
+    }
+}
@@ -0,0 +1,54 @@
+package com.minesweeper.gamefield;
+
+import java.util.Arrays;
+
+/*
+The RevealDelta class holds the result of revealing a tile: the IDs of all tiles that were newly revealed, in the order
+in which they were revealed. The user interface only has to update those tiles, and can do so in one go. It also tells
+if the revealed tile was a bomb, in which case it is the only tile in the delta.
+ */
+
+public class RevealDelta {
+
+    static final RevealDelta EMPTY = new RevealDelta(new int[0], 0, false);
+
+    private final int[] revealedTileIDs;
+    private final int size;
+    private final boolean bombHit;
+
+    RevealDelta(int[] revealedTileIDs, int size, boolean bombHit) {
+        this.revealedTileIDs = revealedTileIDs;
+        this.size = size;
+        this.bombHit = bombHit;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getTileID(int index) {
+        if (index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        return revealedTileIDs[index];
+    }
+
+    public int[] getRevealedTileIDs() {
+        return Arrays.copyOf(revealedTileIDs, size);
+    }
+
+    /*
+    The getTileIDArray method returns the array holding the tile IDs itself, without copying it, only the first size
+    entries of it are used. The GameSession passes it on to its ChangeSet, so a reveal of a hundred million tiles isn't
+    copied once more. A RevealDelta never changes its array, so sharing it is safe.
+     */
+    int[] getTileIDArray() {
+        return revealedTileIDs;
+    }
+
+    public boolean isBombHit() {
+        return bombHit;
+    }
+}
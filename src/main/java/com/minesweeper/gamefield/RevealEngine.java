@@ -0,0 +1,168 @@
+package com.minesweeper.gamefield;
+
+import java.util.Arrays;
+
+/*
+The RevealEngine class reveals tiles on a BitBoard. Revealing a tile without adjacent bombs used to be done by the
+TileUserInterface calling itself for every adjacent tile. On a large open board that meant one nested call per tile,
+which could end in a StackOverflowError, and every step had to go through the Swing components.
+
+The RevealEngine uses a scanline fill on the bitsets of the board instead. The area that opens up consists of the tiles
+without adjacent bombs (empty tiles) that are connected to the clicked tile, plus the tiles bordering them. Rather than
+visiting the empty tiles one by one, the engine fills them a run at a time: starting from an empty tile, it extends to
+the left and right over the empty tiles of the same row, and reveals the whole run, including the tiles just outside
+it, with a few operations on the long words of the bitsets. It then looks at the tiles directly above and below the
+run. Tiles with numbers are revealed right away. Empty tiles are only revealed when their own run is filled, so for
+every group of adjacent empty tiles found there, the first tile is put on a stack to be filled later. A revealed empty
+tile has therefore always been filled, and a tile from the stack that was revealed in the mean time can be skipped.
+
+The stack is a plain int array, so the fill never uses more than a single method call, however large the area is.
+The IDs of all newly revealed tiles are collected in another int array, which is returned as a RevealDelta.
+Flagged tiles are never revealed, and stop the fill just like tiles with numbers.
+ */
+
+public class RevealEngine {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final BitBoard board;
+    private final long[] revealed;
+    private final long[] flagged;
+    private final long[] empty;
+    private final int tilesPerRow;
+    private int[] revealedTileIDs;
+    private int size;
+    private int[] stack;
+    private int stackSize;
+
+    private RevealEngine(BitBoard board) {
+        this.board = board;
+        this.revealed = board.getRevealedWords();
+        this.flagged = board.getFlaggedWords();
+        this.empty = board.getEmptyWords();
+        this.tilesPerRow = board.getTilesPerRow();
+        this.revealedTileIDs = new int[INITIAL_CAPACITY];
+        this.stack = new int[INITIAL_CAPACITY];
+    }
+
+    /*
+    The reveal method reveals the given tile, and if it has no adjacent bombs, the whole area around it up to and
+    including the tiles with numbers. Revealing a tile that is already revealed or flagged does nothing and returns an
+    empty delta. Revealing a bomb only reveals the bomb itself.
+     */
+    public static RevealDelta reveal(BitBoard board, int tileID) {
+        if (board.isRevealed(tileID) || board.isFlagged(tileID)) return RevealDelta.EMPTY;
+        if (board.isBomb(tileID) || board.getAdjacentBombs(tileID) != 0) {
+            board.reveal(tileID);
+            return new RevealDelta(new int[]{tileID}, 1, board.isBomb(tileID));
+        }
+        RevealEngine engine = new RevealEngine(board);
+        engine.fill(tileID);
+        board.addRevealedTiles(engine.size);
+        return new RevealDelta(engine.revealedTileIDs, engine.size, false);
+    }
+
+    private void fill(int tileID) {
+        push(tileID);
+        while (stackSize > 0) {
+            int seedTileID = stack[--stackSize];
+            if (isSet(revealed, seedTileID)) continue;
+
+            int rowStart = seedTileID - seedTileID % tilesPerRow;
+            int rowEnd = rowStart + tilesPerRow - 1;
+            int runStart = previousBlockedTile(seedTileID, rowStart) + 1;
+            int runEnd = nextBlockedTile(seedTileID, rowEnd) - 1;
+            int borderStart = Math.max(runStart - 1, rowStart);
+            int borderEnd = Math.min(runEnd + 1, rowEnd);
+
+            revealRange(borderStart, borderEnd, false);
+            if (rowStart > 0) revealRange(borderStart - tilesPerRow, borderEnd - tilesPerRow, true);
+            if (rowEnd < board.getNumberOfTiles() - 1) {
+                revealRange(borderStart + tilesPerRow, borderEnd + tilesPerRow, true);
+            }
+        }
+    }
+
+    /*
+    The revealRange method reveals the tiles from firstTileID up to and including lastTileID that are not revealed or
+    flagged yet. On the row of the run itself, every one of those tiles is revealed. On the rows above and below the
+    run, empty tiles are left alone, and the first tile of every group of adjacent empty tiles is pushed on the stack.
+    A tile starts a group when the tile before it is not part of the group, which is found by shifting the group bits
+    one position and carrying the highest bit over to the next word.
+     */
+    private void revealRange(int firstTileID, int lastTileID, boolean pushEmptyTiles) {
+        long carry = 0;
+        for (int word = firstTileID >>> 6; word <= lastTileID >>> 6; word++) {
+            long mask = -1L;
+            if (word == firstTileID >>> 6) mask &= -1L << firstTileID;
+            if (word == lastTileID >>> 6) mask &= -1L >>> (63 - (lastTileID & 63));
+            long newTiles = mask & ~revealed[word] & ~flagged[word];
+            if (pushEmptyTiles) {
+                long emptyTiles = newTiles & empty[word];
+                long groupStarts = emptyTiles & ~((emptyTiles << 1) | carry);
+                carry = emptyTiles >>> 63;
+                while (groupStarts != 0) {
+                    push((word << 6) + Long.numberOfTrailingZeros(groupStarts));
+                    groupStarts &= groupStarts - 1;
+                }
+                newTiles &= ~emptyTiles;
+            }
+            revealed[word] |= newTiles;
+            while (newTiles != 0) {
+                add((word << 6) + Long.numberOfTrailingZeros(newTiles));
+                newTiles &= newTiles - 1;
+            }
+        }
+    }
+
+    /*
+    A tile blocks the fill when it is not empty, or when it is flagged. The nextBlockedTile method returns the first
+    blocking tile after tileID, or lastTileID + 1 when there is none up to lastTileID. The previousBlockedTile method
+    returns the last blocking tile before tileID, or firstTileID - 1 when there is none from firstTileID onwards.
+     */
+    private int nextBlockedTile(int tileID, int lastTileID) {
+        int word = tileID >>> 6;
+        long blocked = ~(empty[word] & ~flagged[word]) & (-1L << tileID);
+        while (blocked == 0) {
+            word++;
+            if ((word << 6) > lastTileID) return lastTileID + 1;
+            blocked = ~(empty[word] & ~flagged[word]);
+        }
+        return Math.min((word << 6) + Long.numberOfTrailingZeros(blocked), lastTileID + 1);
+    }
+
+    private int previousBlockedTile(int tileID, int firstTileID) {
+        int word = tileID >>> 6;
+        long blocked = ~(empty[word] & ~flagged[word]) & (-1L >>> (63 - (tileID & 63)));
+        while (blocked == 0) {
+            if ((word << 6) <= firstTileID) return firstTileID - 1;
+            word--;
+            blocked = ~(empty[word] & ~flagged[word]);
+        }
+        return Math.max((word << 6) + 63 - Long.numberOfLeadingZeros(blocked), firstTileID - 1);
+    }
+
+    private static boolean isSet(long[] bits, int tileID) {
+        return (bits[tileID >>> 6] & (1L << tileID)) != 0;
+    }
+
+    private void push(int tileID) {
+        if (stackSize == stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+        stack[stackSize++] = tileID;
+    }
+
+    private void add(int tileID) {
+        if (size == revealedTileIDs.length) revealedTileIDs = grow(revealedTileIDs);
+        revealedTileIDs[size++] = tileID;
+    }
+
+    /*
+    The grow method doubles the capacity of the array of revealed tiles, but never beyond the number of tiles on the
+    board. The stack can hold the same tile more than once, so it simply doubles.
+     */
+    private int[] grow(int[] tileIDs) {
+        int[] grown = new int[(int) Math.min((long) tileIDs.length * 2, board.getNumberOfTiles())];
+        System.arraycopy(tileIDs, 0, grown, 0, tileIDs.length);
+        return grown;
+    }
+}
@@ -0,0 +1,36 @@
+package com.minesweeper.gamefield;
+
+import java.util.SplittableRandom;
+
+/*
+The SplittableRandomStrategy uses the SplittableRandom class from the JDK. It is fast, contains no synchronization, and
+its split method was designed to hand out independent streams of random numbers to other threads.
+ */
+
+public class SplittableRandomStrategy implements RandomStrategy {
+
+    private final SplittableRandom random;
+
+    SplittableRandomStrategy(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private SplittableRandomStrategy(SplittableRandom random) {
+        this.random = random;
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    @Override
+    public long nextLong() {
+        return random.nextLong();
+    }
+
+    @Override
+    public RandomStrategy split() {
+        return new SplittableRandomStrategy(random.split());
+    }
+}
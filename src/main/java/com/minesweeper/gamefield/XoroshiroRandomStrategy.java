@@ -0,0 +1,90 @@
+package com.minesweeper.gamefield;
+
+/*
+The XoroshiroRandomStrategy implements the xoroshiro128** generator by David Blackman and Sebastiano Vigna. Its whole
+state is two longs, and every number takes only a few shifts, rotations and multiplications, so it is about as cheap as
+a good random number generator gets.
+
+The two state longs must not both be zero, so the seed is first spread over them with the splitmix64 function. The
+split method hands out the current stream and then jumps this generator 2^64 numbers ahead, so the streams of the
+original and the split generator can never overlap.
+
+The nextInt method uses Daniel Lemire's multiply and shift method, which avoids a slow division in almost all cases.
+Draws that would make some results slightly more likely than others are rejected, so every result is equally likely.
+ */
+
+public class XoroshiroRandomStrategy implements RandomStrategy {
+
+    private static final long[] JUMP = {0xdf900294d8f554a5L, 0x170865df4b3201fcL};
+
+    private long state0;
+    private long state1;
+
+    XoroshiroRandomStrategy(long seed) {
+        long splitMixState = seed;
+        splitMixState += 0x9e3779b97f4a7c15L;
+        this.state0 = splitMix(splitMixState);
+        splitMixState += 0x9e3779b97f4a7c15L;
+        this.state1 = splitMix(splitMixState);
+    }
+
+    private XoroshiroRandomStrategy(long state0, long state1) {
+        this.state0 = state0;
+        this.state1 = state1;
+    }
+
+    private static long splitMix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+    @Override
+    public long nextLong() {
+        long s0 = state0;
+        long s1 = state1;
+        long result = Long.rotateLeft(s0 * 5, 7) * 9;
+        s1 ^= s0;
+        state0 = Long.rotateLeft(s0, 24) ^ s1 ^ (s1 << 16);
+        state1 = Long.rotateLeft(s1, 37);
+        return result;
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0) throw new IllegalArgumentException("bound must be positive");
+        long product = (nextLong() >>> 32) * bound;
+        long low = product & 0xffffffffL;
+        if (low < bound) {
+            long threshold = (0x100000000L - bound) % bound;
+            while (low < threshold) {
+                product = (nextLong() >>> 32) * bound;
+                low = product & 0xffffffffL;
+            }
+        }
+        return (int) (product >>> 32);
+    }
+
+    @Override
+    public RandomStrategy split() {
+        XoroshiroRandomStrategy splitStrategy = new XoroshiroRandomStrategy(state0, state1);
+        jump();
+        return splitStrategy;
+    }
+
+    private void jump() {
+        long s0 = 0;
+        long s1 = 0;
+        for (long jump : JUMP) {
+            for (int bit = 0; bit < 64; bit++) {
+                if ((jump & (1L << bit)) != 0) {
+                    s0 ^= state0;
+                    s1 ^= state1;
+                }
+                nextLong();
+            }
+        }
+        state0 = s0;
+        state1 = s1;
+    }
+}